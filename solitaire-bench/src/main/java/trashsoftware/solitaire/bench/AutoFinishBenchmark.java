@@ -0,0 +1,44 @@
+package trashsoftware.solitaire.bench;
+
+import org.openjdk.jmh.annotations.*;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireMove;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SolitaireGame#canAutoFinish()}, which the UI checks after every move, and
+ * {@link SolitaireGame#nextAutoMove()}, which it calls for each card while finishing automatically.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutoFinishBenchmark {
+
+    private SolitaireGame midGame;
+    private SolitaireGame readyGame;
+
+    @Setup
+    public void setup() {
+        midGame = BenchPositions.midGame(1, 30);
+        readyGame = BenchPositions.readyToAutoFinish();
+    }
+
+    @Benchmark
+    public boolean canAutoFinishMidGame() {
+        return midGame.canAutoFinish();
+    }
+
+    @Benchmark
+    public boolean canAutoFinishReady() {
+        return readyGame.canAutoFinish();
+    }
+
+    @Benchmark
+    public SolitaireMove nextAutoMove() {
+        return readyGame.nextAutoMove();
+    }
+}
@@ -0,0 +1,107 @@
+package trashsoftware.solitaire.bench;
+
+import trashsoftware.solitaire.core.solitaireGame.EncodedMove;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+import trashsoftware.solitaire.core.solver.SolitaireSolution;
+import trashsoftware.solitaire.core.solver.SolitaireSolver;
+
+import java.util.Random;
+
+/**
+ * Fixed positions shared by the benchmarks, all built from seeded deals so that every run measures the same
+ * layouts.
+ */
+final class BenchPositions {
+
+    static final SolitaireRules RULES = new SolitaireRules.Builder()
+            .initialFinishes(1)
+            .strict(true)
+            .build();
+
+    private static final long WALK_SEED = 20200501L;
+
+    private BenchPositions() {
+    }
+
+    /**
+     * @param dealNumber the deal
+     * @param plies      number of random legal moves made from the deal
+     * @return the game after the moves, with an empty history
+     */
+    static SolitaireGame midGame(long dealNumber, int plies) {
+        SolitaireGame game = new SolitaireGame(RULES, dealNumber);
+        Random random = new Random(WALK_SEED ^ dealNumber);
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        for (int i = 0; i < plies; ++i) {
+            int count = game.generateMoves(buffer);
+            if (count == 0) break;
+            game.applyEncoded(buffer[random.nextInt(count)]);
+        }
+        game.loadPosition(game.getPosition());  // forget the walk
+        return game;
+    }
+
+    /**
+     * Searches seeded positions for one where a move of {@code type} can be made.
+     *
+     * @param type one of the {@link EncodedMove} types
+     * @return a game, with the encoded move as its only element of {@code move}
+     */
+    static SolitaireGame withMoveOfType(int type, int[] move) {
+        for (long deal = 1; deal < 1000; ++deal) {
+            for (int plies = 0; plies < 40; plies += 4) {
+                SolitaireGame game = midGame(deal, plies);
+                int found = findMove(game, type);
+                if (found != 0) {
+                    move[0] = found;
+                    return game;
+                }
+            }
+        }
+        throw new IllegalStateException("No position has a move of type " + type);
+    }
+
+    private static int findMove(SolitaireGame game, int type) {
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        int count = game.generateMoves(buffer);
+        for (int i = 0; i < count; ++i) {
+            if (EncodedMove.type(buffer[i]) == type) return buffer[i];
+        }
+        // the generator never makes these moves, whose source and destination need no suit checking
+        if (type == EncodedMove.SPACE_TO_SPACE ||
+                type == EncodedMove.FINISHED_TO_MAIN ||
+                type == EncodedMove.FINISHED_TO_SPACE) {
+            for (int src = 0; src < 4; ++src) {
+                for (int dst = 0; dst < 8; ++dst) {
+                    int move = EncodedMove.encode(type, src, dst, 1);
+                    if (game.movableEncoded(move)) return move;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Plays the solution of a seeded deal until the rest can be finished automatically.
+     *
+     * @return a game where {@link SolitaireGame#canAutoFinish()} is {@code true} but not yet won
+     */
+    static SolitaireGame readyToAutoFinish() {
+        SolitaireSolver solver = new SolitaireSolver.Builder().tableMegabytes(16).build();
+        for (long deal = 1; deal < 100; ++deal) {
+            SolitaireGame game = new SolitaireGame(RULES, deal);
+            SolitaireSolution solution = solver.solve(game);
+            if (!solution.isSolved()) continue;
+            for (int move : solution.getMoves()) {
+                if (game.canAutoFinish()) break;
+                game.applyEncoded(move);
+            }
+            if (game.canAutoFinish() && !game.wining()) {
+                game.loadPosition(game.getPosition());
+                return game;
+            }
+        }
+        throw new IllegalStateException("No deal reaches an auto finish position");
+    }
+}
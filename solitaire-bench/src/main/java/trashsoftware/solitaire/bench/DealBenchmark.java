@@ -0,0 +1,38 @@
+package trashsoftware.solitaire.bench;
+
+import org.openjdk.jmh.annotations.*;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireDeal;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitairePosition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating games from deal numbers, one game at a time and in batches of packed positions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DealBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private final long[] buffer = new long[BATCH * SolitairePosition.LONGS];
+    private long nextDeal;
+
+    @Benchmark
+    public SolitaireGame newGame() {
+        return new SolitaireGame(BenchPositions.RULES, nextDeal++);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long[] generateBatch() {
+        SolitaireDeal.generate(nextDeal, BATCH, BenchPositions.RULES.getInitialFinishes(), buffer, 0);
+        nextDeal += BATCH;
+        return buffer;
+    }
+}
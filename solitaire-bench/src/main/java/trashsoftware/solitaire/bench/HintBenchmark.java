@@ -0,0 +1,37 @@
+package trashsoftware.solitaire.bench;
+
+import org.openjdk.jmh.annotations.*;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireHint;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SolitaireGame#getHint()} at the start and in the middle of seeded deals.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HintBenchmark {
+
+    @Param({"1", "2", "3"})
+    public long dealNumber;
+
+    @Param({"0", "30"})
+    public int plies;
+
+    private SolitaireGame game;
+
+    @Setup
+    public void setup() {
+        game = BenchPositions.midGame(dealNumber, plies);
+    }
+
+    @Benchmark
+    public SolitaireHint getHint() {
+        return game.getHint();
+    }
+}
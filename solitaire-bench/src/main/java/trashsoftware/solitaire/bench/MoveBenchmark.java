@@ -0,0 +1,53 @@
+package trashsoftware.solitaire.bench;
+
+import org.openjdk.jmh.annotations.*;
+import trashsoftware.solitaire.core.solitaireGame.EncodedMove;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireMove;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A move and its undo, for each type of move, both through {@link SolitaireMove} objects as the UI does and
+ * through encoded moves as the solver does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveBenchmark {
+
+    @Param({"MAIN_TO_MAIN", "MAIN_TO_SPACE", "SPACE_TO_MAIN", "SPACE_TO_SPACE",
+            "MAIN_TO_FINISHED", "SPACE_TO_FINISHED", "FINISHED_TO_MAIN", "FINISHED_TO_SPACE"})
+    public String moveType;
+
+    private SolitaireGame game;
+    private SolitaireMove move;
+    private int encoded;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        int type = EncodedMove.class.getField(moveType).getInt(null);
+        int[] found = new int[1];
+        game = BenchPositions.withMoveOfType(type, found);
+        encoded = found[0];
+        move = game.decodeMove(encoded);
+    }
+
+    @Benchmark
+    public boolean moveAndUndo() {
+        boolean moved = game.move(move);
+        game.undo();
+        return moved;
+    }
+
+    @Benchmark
+    public long applyAndUndoEncoded() {
+        game.applyEncoded(encoded);
+        long hash = game.getPositionHash();
+        game.undoEncoded(encoded);
+        return hash;
+    }
+}
@@ -0,0 +1,79 @@
+package trashsoftware.solitaire.bench;
+
+import org.openjdk.jmh.annotations.*;
+import trashsoftware.solitaire.util.SolitaireRankResult;
+import trashsoftware.solitaire.util.SolitaireRecord;
+import trashsoftware.solitaire.util.SolitaireRecorder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SolitaireRecorder#put(SolitaireRecord)}, which ranks a new record and appends it to the records log,
+ * and {@link SolitaireRecorder#rank(SolitaireRecord)}, which only ranks it, with a records file of
+ * {@code existing} records.
+ * <p>
+ * Each put adds a record, so every put is timed once. Ranks do not change the records and are timed on
+ * average. The records file is a temporary file set through {@code solitaire.recordFile} before the recorder is
+ * loaded, and each benchmark and parameter runs in a new JVM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(1)
+@State(Scope.Thread)
+public class RecorderBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int existing;
+
+    private final Random random = new Random(42);
+    private Path recordFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        recordFile = Files.createTempFile("solitaire-bench-records", ".json");
+        StringBuilder builder = new StringBuilder("{\"1\":[");
+        for (int i = 0; i < existing; ++i) {
+            if (i > 0) builder.append(',');
+            builder.append(String.format(
+                    "{\"score\":%d,\"seconds\":%d,\"steps\":%d,\"initFinishes\":1,\"date\":\"2020-05-01,12-00-00\"}",
+                    random.nextInt(100000), random.nextInt(3600), random.nextInt(300)));
+        }
+        builder.append("]}");
+        Files.writeString(recordFile, builder, StandardCharsets.UTF_8);
+        System.setProperty("solitaire.recordFile", recordFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(recordFile);
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(
+                recordFile.getParent(), recordFile.getFileName() + ".*.log")) {
+            for (Path log : logs) Files.deleteIfExists(log);
+        }
+    }
+
+    @Benchmark
+    public SolitaireRankResult put() {
+        return SolitaireRecorder.put(new SolitaireRecord(
+                1, random.nextInt(3600), random.nextInt(100000), random.nextInt(300), new Date()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public SolitaireRankResult rank() {
+        return SolitaireRecorder.rank(new SolitaireRecord(
+                1, random.nextInt(3600), random.nextInt(100000), random.nextInt(300), new Date()));
+    }
+}
@@ -0,0 +1,67 @@
+package trashsoftware.solitaire.bench;
+
+import org.openjdk.jmh.annotations.*;
+import trashsoftware.solitaire.core.journal.GameReplay;
+import trashsoftware.solitaire.core.journal.JournalGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitairePosition;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Going to a random move of a recorded game of {@code events} moves and undos, by {@link GameReplay#seek(int)}
+ * and by playing all events from the start as a replay without checkpoints would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark {
+
+    @Param({"200", "2000"})
+    public int events;
+
+    private final Random random = new Random(42);
+    private SolitairePosition start;
+    private int[] recorded;
+    private GameReplay replay;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SolitaireGame game = new SolitaireGame(BenchPositions.RULES, 7);
+        start = game.getPosition();
+        recorded = new int[events];
+        int count = 0;
+        Random walk = new Random(20200501L);
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        while (count < events) {
+            int moveCount = game.generateMoves(buffer);
+            if (moveCount == 0 || (walk.nextInt(8) == 0 && game.hasMoveToUndo())) {
+                game.undo();
+                recorded[count++] = JournalGame.UNDO;
+            } else {
+                int move = buffer[walk.nextInt(moveCount)];
+                game.move(game.decodeMove(move));
+                recorded[count++] = move;
+            }
+        }
+        replay = new GameReplay(start, BenchPositions.RULES, recorded, GameReplay.DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    @Benchmark
+    public SolitaireGame seek() {
+        return replay.seek(random.nextInt(events + 1));
+    }
+
+    @Benchmark
+    public SolitaireGame playFromStart() {
+        SolitaireGame game = start.toGame(BenchPositions.RULES);
+        int target = random.nextInt(events + 1);
+        for (int event : Arrays.copyOf(recorded, target)) JournalGame.perform(game, event);
+        return game;
+    }
+}
@@ -0,0 +1,217 @@
+package trashsoftware.solitaire.tools;
+
+import org.json.JSONObject;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireDeal;
+import trashsoftware.solitaire.core.solitaireGame.SolitairePosition;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+import trashsoftware.solitaire.core.solver.SolitaireSolution;
+import trashsoftware.solitaire.core.solver.SolitaireSolver;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Command line entry solving a range of deals without any user interface.
+ * <p>
+ * Each deal is written to the standard output as one JSON line, in the order the deals are finished:
+ * <pre>
+ * {"deal":17,"solved":true,"verdict":"SOLVED","length":91,"nodes":5321,"millis":48.3}
+ * </pre>
+ * A deal whose solving throws gets an error line instead, the other deals go on, and the command exits with
+ * status 1:
+ * <pre>
+ * {"deal":18,"error":"java.lang.IllegalStateException: ..."}
+ * </pre>
+ * If the standard output cannot be written, for example because the reading end of a pipe is closed, all workers
+ * stop after their current deal and the command exits with status 1 too.
+ * Run without arguments to see the options.
+ */
+public class BatchSolve {
+
+    private static final String USAGE = String.join("\n",
+            "Usage: BatchSolve --from <deal> --count <n> [options]",
+            "  --from <deal>          first deal number",
+            "  --count <n>            number of consecutive deals",
+            "  --init-finishes <k>    cards of each suit already finished, default 0",
+            "  --strict <true|false>  limit move length by free cells, default true",
+            "  --threads <t>          worker threads, default number of processors",
+            "  --nodes <n>            node limit of each deal, default 1000000",
+            "  --time-ms <ms>         time limit of each deal, 0 for none, default 0",
+            "  --weight <w>           weight of the estimate, default 2.0",
+            "  --table-mb <mb>        transposition table size of each thread, default 32");
+
+    private final long from;
+    private final long count;
+    private final SolitaireRules rules;
+    private final int threads;
+    private final SolitaireSolver.Builder solverBuilder;
+    private final Writer out;
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+    private BatchSolve(long from, long count, SolitaireRules rules, int threads,
+                       SolitaireSolver.Builder solverBuilder, Writer out) {
+        this.from = from;
+        this.count = count;
+        this.rules = rules;
+        this.threads = threads;
+        this.solverBuilder = solverBuilder;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Long from = null;
+        Long count = null;
+        int initFinishes = 0;
+        boolean strict = true;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long nodes = 1_000_000;
+        long timeMs = 0;
+        double weight = 2.0;
+        int tableMb = 32;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value of " + args[i]);
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--from":
+                        from = Long.parseLong(value);
+                        break;
+                    case "--count":
+                        count = Long.parseLong(value);
+                        break;
+                    case "--init-finishes":
+                        initFinishes = Integer.parseInt(value);
+                        break;
+                    case "--strict":
+                        strict = Boolean.parseBoolean(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--nodes":
+                        nodes = Long.parseLong(value);
+                        break;
+                    case "--time-ms":
+                        timeMs = Long.parseLong(value);
+                        break;
+                    case "--weight":
+                        weight = Double.parseDouble(value);
+                        break;
+                    case "--table-mb":
+                        tableMb = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (from == null || count == null) throw new IllegalArgumentException("--from and --count are required");
+            if (count < 0 || threads < 1 || initFinishes < 0 || initFinishes > 13 || weight < 1.0) {
+                throw new IllegalArgumentException("Invalid option value");
+            }
+        } catch (IllegalArgumentException e) {  // including NumberFormatException
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        SolitaireRules rules = new SolitaireRules.Builder()
+                .initialFinishes(initFinishes)
+                .strict(strict)
+                .build();
+        SolitaireSolver.Builder solverBuilder = new SolitaireSolver.Builder()
+                .nodeLimit(nodes)
+                .timeLimitMillis(timeMs)
+                .weight(weight)
+                .tableMegabytes(tableMb);
+        // not System.out, which swallows write errors
+        Writer out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8));
+        boolean succeeded = new BatchSolve(from, count, rules, threads, solverBuilder, out).run();
+        if (!succeeded) System.exit(1);
+    }
+
+    /**
+     * @return whether every deal was solved without error
+     */
+    private boolean run() throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new Thread(this::work, "BatchSolve-" + i);
+            // thrown outside the handling of one deal, such as an Error, and ends this worker only
+            workers[i].setUncaughtExceptionHandler((thread, e) -> {
+                failed.set(true);
+                e.printStackTrace();
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) worker.join();
+        return !failed.get();
+    }
+
+    /**
+     * Takes deals one by one until none is left. Each worker has its own solver, and so its own
+     * transposition table.
+     * <p>
+     * A failure of writing the output ends all workers, since no later result could be written either.
+     */
+    private void work() {
+        SolitaireSolver solver = solverBuilder.build();
+        long[] words = new long[SolitairePosition.LONGS];
+        long index;
+        while ((index = next.getAndIncrement()) < count) {
+            String line = solveDeal(solver, from + index, words);
+            try {
+                write(line);
+            } catch (UncheckedIOException e) {
+                failed.set(true);
+                next.set(count);  // the other workers take no more deals
+                e.printStackTrace();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the output line of the deal, an error line if solving it throws
+     */
+    private String solveDeal(SolitaireSolver solver, long dealNumber, long[] words) {
+        SolitaireSolution solution;
+        try {
+            SolitaireDeal.generate(dealNumber, 1, rules.getInitialFinishes(), words, 0);
+            solution = solver.solve(new SolitairePosition(words, 0), rules);
+        } catch (RuntimeException e) {
+            failed.set(true);
+            e.printStackTrace();
+            return String.format(Locale.ROOT, "{\"deal\":%d,\"error\":%s}\n",
+                    dealNumber, JSONObject.quote(String.valueOf(e)));
+        }
+        return String.format(Locale.ROOT,
+                "{\"deal\":%d,\"solved\":%b,\"verdict\":\"%s\",\"length\":%d,\"nodes\":%d,\"millis\":%.1f}\n",
+                dealNumber,
+                solution.isSolved(),
+                solution.getVerdict(),
+                solution.length(),
+                solution.getNodesExpanded(),
+                solution.getNanoTime() / 1e6);
+    }
+
+    private synchronized void write(String line) {
+        try {
+            out.write(line);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+module Solitaire.core {
+    requires org.json;
+
+    exports trashsoftware.solitaire.core.solitaireGame;
+    exports trashsoftware.solitaire.core.journal;
+    exports trashsoftware.solitaire.core.solver;
+    exports trashsoftware.solitaire.util;
+}
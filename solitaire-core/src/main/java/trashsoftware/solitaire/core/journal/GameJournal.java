@@ -0,0 +1,110 @@
+package trashsoftware.solitaire.core.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only binary file of all games played, each stored as its deal, its rules and its moves.
+ * <p>
+ * Games are written on a background thread, so {@link #append(JournalRecording)} never waits for the disk. Each
+ * game is flushed once it is written. {@link #close()} waits for the games already appended.
+ *
+ * @see JournalReader
+ */
+public class GameJournal implements Closeable {
+
+    private final Path file;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "GameJournal");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private OutputStream out;  // only used by the writer thread
+    private boolean rejected;  // the file is not a journal of this version, only used by the writer thread
+
+    /**
+     * @param file the journal file, created when the first game is written. An existing file that is not a
+     *             journal of this version is left unchanged.
+     */
+    public GameJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Appends a game to the journal. The recording may go on after this call, but what follows is not appended.
+     *
+     * @param recording the game
+     */
+    public void append(JournalRecording recording) {
+        byte[] body = recording.toBody();
+        writer.execute(() -> write(body));
+    }
+
+    private void write(byte[] body) {
+        if (rejected) return;
+        try {
+            if (out == null) {
+                boolean newFile = !Files.exists(file) || Files.size(file) == 0;
+                if (!newFile) checkHeader();
+                out = new BufferedOutputStream(Files.newOutputStream(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+                if (newFile) {
+                    out.write(JournalFormat.MAGIC);
+                    out.write(JournalFormat.VERSION);
+                }
+            }
+            ByteArrayOutputStream length = new ByteArrayOutputStream(5);
+            JournalFormat.writeVarint(length, body.length);
+            out.write(length.toByteArray());
+            out.write(body);
+            out.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Makes sure games are only appended to a journal of the version written here.
+     *
+     * @throws IOException if the existing file is not such a journal, after which no game is written to it
+     */
+    private void checkHeader() throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            if (!JournalFormat.readHeader(in)) {
+                rejected = true;
+                throw new IOException(file + " is not a game journal of version " + JournalFormat.VERSION +
+                        ", games are not appended to it.");
+            }
+        }
+    }
+
+    /**
+     * Writes the games appended so far and closes the file.
+     */
+    @Override
+    public void close() {
+        writer.execute(() -> {
+            try {
+                if (out != null) out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
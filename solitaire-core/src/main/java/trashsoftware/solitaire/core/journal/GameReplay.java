@@ -0,0 +1,165 @@
+package trashsoftware.solitaire.core.journal;
+
+import trashsoftware.solitaire.core.solitaireGame.EncodedMove;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitairePosition;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import java.util.Arrays;
+
+/**
+ * Random access to the layouts of a recorded game, for example to scrub a timeline or to sample positions.
+ * <p>
+ * The events are played once when the replay is created. Each event is stored as the encoded moves that change
+ * the layout: the move and its safe auto play, or the inverse moves of an undo or a restart. A packed position is
+ * kept every time at least {@code checkpointInterval} moves have been stored since the previous one, so
+ * {@link #seek(int)} loads the nearest position before the index and then applies fewer than
+ * {@code checkpointInterval} moves, without creating any move object.
+ * <p>
+ * A replay is not thread safe.
+ */
+public class GameReplay {
+
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 32;
+
+    /**
+     * The layout after {@link #index} events.
+     */
+    private final SolitaireGame game;
+    private final int[] moves;
+    /**
+     * Moves of event {@code i} are from {@code eventEnds[i]} to {@code eventEnds[i + 1]} exclusive.
+     */
+    private final int[] eventEnds;
+    private final long[] checkpoints;
+    /**
+     * Number of events before each checkpoint, increasing, starting from {@code 0}.
+     */
+    private final int[] checkpointEvents;
+    private int index;
+
+    /**
+     * @param start              the start layout
+     * @param rules              the rules the game was played with
+     * @param events             the events, as in {@link JournalGame#perform(SolitaireGame, int)}
+     * @param checkpointInterval the least number of moves between two stored positions
+     * @throws IllegalStateException if an event cannot be performed
+     */
+    public GameReplay(SolitairePosition start, SolitaireRules rules, int[] events, int checkpointInterval) {
+        if (checkpointInterval < 1) throw new IllegalArgumentException("Checkpoint interval must be positive.");
+        SolitaireGame player = start.toGame(rules);
+        int[] moveList = new int[events.length * 2 + 16];
+        int moveCount = 0;
+        long[] checkpointList = new long[SolitairePosition.LONGS * 8];
+        int[] checkpointEventList = new int[8];
+        int checkpointCount = 1;
+        SolitairePosition.encodeInto(player, checkpointList, 0);
+
+        this.eventEnds = new int[events.length + 1];
+        int sinceCheckpoint = 0;
+        int[] removed = new int[SolitairePosition.CARDS + 1];  // an undo removes a move and its safe auto play
+        for (int i = 0; i < events.length; ++i) {
+            int event = events[i];
+            int before = player.getHistorySize();
+            int kept = 0;
+            if (event == JournalGame.UNDO || event == JournalGame.RESTART) {
+                kept = event == JournalGame.RESTART ? before : Math.min(before, removed.length);
+                if (kept > removed.length) removed = new int[kept];
+                for (int h = 0; h < kept; ++h) removed[h] = player.getHistoryMove(before - kept + h);
+            }
+            JournalGame.perform(player, event);
+            int after = player.getHistorySize();
+
+            int eventMoves = Math.abs(after - before);
+            if (moveCount + eventMoves > moveList.length) {
+                moveList = Arrays.copyOf(moveList, Math.max(moveList.length * 2, moveCount + eventMoves));
+            }
+            if (after >= before) {
+                for (int h = before; h < after; ++h) {
+                    moveList[moveCount++] = player.getHistoryMove(h) & ~EncodedMove.AUTO_PLAYED;
+                }
+            } else {
+                for (int h = before - 1; h >= after; --h) {
+                    moveList[moveCount++] = EncodedMove.inverse(removed[h - (before - kept)]);
+                }
+            }
+            eventEnds[i + 1] = moveCount;
+
+            sinceCheckpoint += eventMoves;
+            if (sinceCheckpoint >= checkpointInterval) {
+                if (checkpointCount == checkpointEventList.length) {
+                    checkpointEventList = Arrays.copyOf(checkpointEventList, checkpointCount * 2);
+                    checkpointList = Arrays.copyOf(checkpointList, checkpointCount * 2 * SolitairePosition.LONGS);
+                }
+                SolitairePosition.encodeInto(player, checkpointList, checkpointCount * SolitairePosition.LONGS);
+                checkpointEventList[checkpointCount++] = i + 1;
+                sinceCheckpoint = 0;
+            }
+        }
+        this.moves = Arrays.copyOf(moveList, moveCount);
+        this.checkpoints = Arrays.copyOf(checkpointList, checkpointCount * SolitairePosition.LONGS);
+        this.checkpointEvents = Arrays.copyOf(checkpointEventList, checkpointCount);
+        this.game = start.toGame(rules);
+    }
+
+    /**
+     * @param journalGame a game read from the journal
+     * @return the replay of the game, with {@link #DEFAULT_CHECKPOINT_INTERVAL}
+     */
+    public static GameReplay of(JournalGame journalGame) {
+        int[] events = new int[journalGame.getEventCount()];
+        for (int i = 0; i < events.length; ++i) events[i] = journalGame.getEvent(i);
+        return new GameReplay(journalGame.getStartPosition(), journalGame.getRules(), events,
+                DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @return number of events, which is the greatest index to seek
+     */
+    public int length() {
+        return eventEnds.length - 1;
+    }
+
+    /**
+     * @return number of events played in the current layout
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCheckpointCount() {
+        return checkpointEvents.length;
+    }
+
+    /**
+     * Goes to the layout after {@code target} events.
+     * <p>
+     * Seeking forward from the current layout plays on from it when that is not farther than from a checkpoint.
+     *
+     * @param target number of events from the start, from {@code 0} to {@link #length()}
+     * @return the game at that layout, which is owned by this replay and must not be changed. Its history is
+     * empty.
+     */
+    public SolitaireGame seek(int target) {
+        if (target < 0 || target > length()) throw new IndexOutOfBoundsException(target);
+        int checkpoint = Arrays.binarySearch(checkpointEvents, target);
+        if (checkpoint < 0) checkpoint = -checkpoint - 2;  // the last checkpoint before target
+        int from = checkpointEvents[checkpoint];
+        if (index >= from && index <= target) {
+            from = index;
+        } else {
+            game.loadPosition(new SolitairePosition(checkpoints, checkpoint * SolitairePosition.LONGS));
+        }
+        for (int i = eventEnds[from]; i < eventEnds[target]; ++i) game.applyEncoded(moves[i]);
+        index = target;
+        return game;
+    }
+
+    /**
+     * @param target number of events from the start
+     * @return the layout after {@code target} events
+     */
+    public SolitairePosition positionAt(int target) {
+        return seek(target).getPosition();
+    }
+}
@@ -0,0 +1,83 @@
+package trashsoftware.solitaire.core.journal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Constants and variable-length integers of the game journal file.
+ * <p>
+ * The file starts with {@link #MAGIC} and {@link #VERSION}, followed by games. Each game is the varint length of
+ * its body and then the body:
+ * <ul>
+ *     <li>one byte of flags: {@link #FLAG_STRICT}, {@link #FLAG_SAFE_AUTO_PLAY}, {@link #FLAG_DEAL}</li>
+ *     <li>varint initial finishes</li>
+ *     <li>the deal number as 8 bytes, or {@link trashsoftware.solitaire.core.solitaireGame.SolitairePosition#LONGS}
+ *     longs of the start position if there is no deal</li>
+ *     <li>varint start time in epoch milliseconds</li>
+ *     <li>varint number of events, then each event as a varint followed by the varint milliseconds since the
+ *     previous event</li>
+ * </ul>
+ * An event is an encoded move, {@link JournalGame#UNDO} or {@link JournalGame#RESTART}. Varints are unsigned,
+ * 7 bits per byte with the lowest group first. Longs are big-endian.
+ */
+final class JournalFormat {
+
+    static final byte[] MAGIC = {'S', 'O', 'L', 'J'};
+    static final int VERSION = 1;
+
+    static final int FLAG_STRICT = 1;
+    static final int FLAG_SAFE_AUTO_PLAY = 1 << 1;
+    static final int FLAG_DEAL = 1 << 2;
+
+    private JournalFormat() {
+    }
+
+    /**
+     * Reads {@link #MAGIC} and {@link #VERSION} from the start of a journal file.
+     *
+     * @return whether the file starts with them
+     */
+    static boolean readHeader(InputStream in) throws IOException {
+        byte[] magic = in.readNBytes(MAGIC.length);
+        return Arrays.equals(magic, MAGIC) && in.read() == VERSION;
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) out.write((int) (value >>> shift));
+    }
+
+    /**
+     * @throws EOFException if the stream ends in the middle of the number
+     */
+    static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint.");
+    }
+
+    static long readLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; ++i) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,115 @@
+package trashsoftware.solitaire.core.journal;
+
+import trashsoftware.solitaire.core.solitaireGame.EncodedMove;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireDeal;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireMove;
+import trashsoftware.solitaire.core.solitaireGame.SolitairePosition;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+/**
+ * A game read from the journal: where it started and everything done in it.
+ * <p>
+ * Events are encoded moves passed to {@link SolitaireGame#move}, {@link #UNDO} or {@link #RESTART}. Moves of safe
+ * auto play are not events, they happen again when the moves are replayed with the same rules.
+ */
+public class JournalGame {
+
+    /**
+     * Event of {@link SolitaireGame#undo()}. Never a valid move.
+     */
+    public static final int UNDO = 0;
+    /**
+     * Event of {@link SolitaireGame#restartGame()}. Never a valid move, since it has no cards.
+     */
+    public static final int RESTART = 1;
+
+    private final Long dealNumber;
+    private final SolitairePosition startPosition;
+    private final SolitaireRules rules;
+    private final long startMillis;
+    private final int[] events;
+    private final long[] eventMillis;
+
+    JournalGame(Long dealNumber, SolitairePosition startPosition, SolitaireRules rules,
+                long startMillis, int[] events, long[] eventMillis) {
+        this.dealNumber = dealNumber;
+        this.startPosition = startPosition;
+        this.rules = rules;
+        this.startMillis = startMillis;
+        this.events = events;
+        this.eventMillis = eventMillis;
+    }
+
+    /**
+     * @return the deal number, or {@code null} if the game started from a position
+     */
+    public Long getDealNumber() {
+        return dealNumber;
+    }
+
+    public SolitairePosition getStartPosition() {
+        return startPosition != null ? startPosition :
+                SolitaireDeal.positionOf(dealNumber, rules.getInitialFinishes());
+    }
+
+    public SolitaireRules getRules() {
+        return rules;
+    }
+
+    /**
+     * @return the time the game started, in epoch milliseconds
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public int getEventCount() {
+        return events.length;
+    }
+
+    public int getEvent(int index) {
+        return events[index];
+    }
+
+    /**
+     * @param index the event index
+     * @return the time of the event in milliseconds since the start of the game
+     */
+    public long getEventMillis(int index) {
+        return eventMillis[index];
+    }
+
+    /**
+     * @return a new game at the start of this game
+     */
+    public SolitaireGame newGame() {
+        return dealNumber != null ? new SolitaireGame(rules, dealNumber) : startPosition.toGame(rules);
+    }
+
+    /**
+     * Performs one event on {@code game}.
+     *
+     * @param game  the game, at the state before the event
+     * @param event the event
+     */
+    public static void perform(SolitaireGame game, int event) {
+        switch (event) {
+            case UNDO:
+                game.undo();
+                break;
+            case RESTART:
+                game.restartGame();
+                break;
+            default:
+                // consecutive auto played cards are joined again in the history of the game
+                SolitaireMove move = EncodedMove.isAutoPlayed(event) ?
+                        new SolitaireMove.AutoPlay(game, new int[]{event & ~EncodedMove.AUTO_PLAYED}) :
+                        game.decodeMove(event);
+                if (!game.move(move)) {
+                    throw new IllegalStateException("Journal move " + event + " is not legal.");
+                }
+                break;
+        }
+    }
+}
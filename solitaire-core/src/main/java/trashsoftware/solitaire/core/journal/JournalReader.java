@@ -0,0 +1,104 @@
+package trashsoftware.solitaire.core.journal;
+
+import trashsoftware.solitaire.core.solitaireGame.SolitairePosition;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the games of a file written by {@link GameJournal}, in the order they were played.
+ * <p>
+ * A game cut off at the end of the file, for example because the program was killed while writing it, is
+ * ignored.
+ */
+public class JournalReader implements Closeable {
+
+    private final InputStream in;
+
+    /**
+     * @param file the journal file
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public JournalReader(Path file) throws IOException {
+        this.in = new BufferedInputStream(Files.newInputStream(file));
+        if (!JournalFormat.readHeader(in)) {
+            in.close();
+            throw new IOException("Not a game journal of version " + JournalFormat.VERSION + ".");
+        }
+    }
+
+    /**
+     * @param file the journal file
+     * @return all complete games of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static List<JournalGame> readAll(Path file) throws IOException {
+        List<JournalGame> games = new ArrayList<>();
+        try (JournalReader reader = new JournalReader(file)) {
+            JournalGame game;
+            while ((game = reader.next()) != null) games.add(game);
+        }
+        return games;
+    }
+
+    /**
+     * @return the next game, or {@code null} if there is no complete game left
+     * @throws IOException if the file cannot be read or a game is malformed
+     */
+    public JournalGame next() throws IOException {
+        byte[] body;
+        try {
+            long length = JournalFormat.readVarint(in);
+            if (length > Integer.MAX_VALUE) throw new IOException("Game too long: " + length + " bytes.");
+            body = in.readNBytes((int) length);
+            if (body.length < length) return null;
+        } catch (EOFException e) {
+            return null;
+        }
+        return parse(new ByteArrayInputStream(body));
+    }
+
+    private static JournalGame parse(InputStream body) throws IOException {
+        int flags = body.read();
+        if (flags < 0) throw new EOFException();
+        SolitaireRules rules = new SolitaireRules.Builder()
+                .initialFinishes((int) JournalFormat.readVarint(body))
+                .strict((flags & JournalFormat.FLAG_STRICT) != 0)
+                .safeAutoPlay((flags & JournalFormat.FLAG_SAFE_AUTO_PLAY) != 0)
+                .build();
+        Long dealNumber = null;
+        SolitairePosition startPosition = null;
+        if ((flags & JournalFormat.FLAG_DEAL) != 0) {
+            dealNumber = JournalFormat.readLong(body);
+        } else {
+            long[] words = new long[SolitairePosition.LONGS];
+            for (int i = 0; i < words.length; ++i) words[i] = JournalFormat.readLong(body);
+            startPosition = new SolitairePosition(words, 0);
+        }
+        long startMillis = JournalFormat.readVarint(body);
+        int count = (int) JournalFormat.readVarint(body);
+        int[] events = new int[count];
+        long[] eventMillis = new long[count];
+        long millis = 0;
+        for (int i = 0; i < count; ++i) {
+            events[i] = (int) JournalFormat.readVarint(body);
+            millis += JournalFormat.readVarint(body);
+            eventMillis[i] = millis;
+        }
+        return new JournalGame(dealNumber, startPosition, rules, startMillis, events, eventMillis);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,86 @@
+package trashsoftware.solitaire.core.journal;
+
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitairePosition;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * The journal of one game being played, kept in memory in the file format until it is written by
+ * {@link GameJournal#append(JournalRecording)}.
+ * <p>
+ * Set it as the {@link SolitaireGame.HistoryListener} of the game right after the game is created or restarted,
+ * so that the events start from the start layout.
+ */
+public class JournalRecording implements SolitaireGame.HistoryListener {
+
+    private final Long dealNumber;
+    private final SolitairePosition startPosition;  // null if the game has a deal number
+    private final SolitaireRules rules;
+    private final long startMillis;
+    private final ByteArrayOutputStream events = new ByteArrayOutputStream();
+    private long lastMillis;
+    private int eventCount;
+
+    /**
+     * @param game the game at its start layout
+     */
+    public JournalRecording(SolitaireGame game) {
+        this.dealNumber = game.getDealNumber();
+        this.startPosition = dealNumber == null ? game.getPosition() : null;
+        this.rules = game.getRules();
+        this.startMillis = System.currentTimeMillis();
+        this.lastMillis = startMillis;
+    }
+
+    @Override
+    public void moved(int move) {
+        addEvent(move);
+    }
+
+    @Override
+    public void undone() {
+        addEvent(JournalGame.UNDO);
+    }
+
+    @Override
+    public void restarted() {
+        addEvent(JournalGame.RESTART);
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    private void addEvent(int event) {
+        long now = System.currentTimeMillis();
+        JournalFormat.writeVarint(events, event);
+        JournalFormat.writeVarint(events, Math.max(0, now - lastMillis));
+        lastMillis = now;
+        eventCount++;
+    }
+
+    /**
+     * @return the body of this game in the journal file
+     */
+    byte[] toBody() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(events.size() + 32);
+        int flags = (rules.isStrict() ? JournalFormat.FLAG_STRICT : 0) |
+                (rules.isSafeAutoPlay() ? JournalFormat.FLAG_SAFE_AUTO_PLAY : 0) |
+                (dealNumber != null ? JournalFormat.FLAG_DEAL : 0);
+        out.write(flags);
+        JournalFormat.writeVarint(out, rules.getInitialFinishes());
+        if (dealNumber != null) {
+            JournalFormat.writeLong(out, dealNumber);
+        } else {
+            long[] words = new long[SolitairePosition.LONGS];
+            startPosition.writeTo(words, 0);
+            for (long word : words) JournalFormat.writeLong(out, word);
+        }
+        JournalFormat.writeVarint(out, startMillis);
+        JournalFormat.writeVarint(out, eventCount);
+        out.writeBytes(events.toByteArray());
+        return out.toByteArray();
+    }
+}
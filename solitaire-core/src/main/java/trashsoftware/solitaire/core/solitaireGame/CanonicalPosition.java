@@ -0,0 +1,193 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+import java.util.Arrays;
+
+/**
+ * The normal form of a {@link SolitairePosition}, together with the permutation that produced it.
+ * <p>
+ * Positions that only differ in the order of main columns or in which spaces hold the cards are the same
+ * game. In the normal form, main columns are sorted by the {@link Card#cardIndex()} of their bottom cards and
+ * spaces are sorted by their cards, with empty columns and empty spaces at the end. Two positions are the same
+ * game if and only if their canonical positions are equal.
+ */
+public final class CanonicalPosition {
+
+    private static final int MAIN_COUNT = 8;
+    private static final int SPACE_COUNT = 4;
+    private static final int EMPTY = Integer.MAX_VALUE;
+
+    private final SolitairePosition position;
+    /**
+     * {@code columnMap[canonicalCol]} is the original column.
+     */
+    private final int[] columnMap;
+    /**
+     * {@code spaceMap[canonicalPos]} is the original space position.
+     */
+    private final int[] spaceMap;
+    private final int[] columnInverse;
+    private final int[] spaceInverse;
+
+    private CanonicalPosition(SolitairePosition position,
+                              int[] columnMap, int[] columnInverse,
+                              int[] spaceMap, int[] spaceInverse) {
+        this.position = position;
+        this.columnMap = columnMap;
+        this.columnInverse = columnInverse;
+        this.spaceMap = spaceMap;
+        this.spaceInverse = spaceInverse;
+    }
+
+    public static CanonicalPosition of(SolitaireGame game) {
+        return of(SolitairePosition.of(game));
+    }
+
+    public static CanonicalPosition of(SolitairePosition original) {
+        int[] columnKeys = new int[MAIN_COUNT];
+        int[] spaceKeys = new int[SPACE_COUNT];
+        Arrays.fill(columnKeys, EMPTY);
+        Arrays.fill(spaceKeys, EMPTY);
+        for (int i = 0; i < SolitairePosition.CARDS; ++i) {
+            int link = original.getLink(i);
+            if (link >= SolitairePosition.BASE_LINK && link < SolitairePosition.BASE_LINK + MAIN_COUNT) {
+                columnKeys[link - SolitairePosition.BASE_LINK] = i;
+            } else if (link >= SolitairePosition.SPACE_LINK && link < SolitairePosition.SPACE_LINK + SPACE_COUNT) {
+                spaceKeys[link - SolitairePosition.SPACE_LINK] = i;
+            }
+        }
+        int[] columnMap = sortedOrder(columnKeys);
+        int[] spaceMap = sortedOrder(spaceKeys);
+        int[] columnInverse = new int[MAIN_COUNT];
+        int[] spaceInverse = new int[SPACE_COUNT];
+        for (int i = 0; i < MAIN_COUNT; ++i) columnInverse[columnMap[i]] = i;
+        for (int i = 0; i < SPACE_COUNT; ++i) spaceInverse[spaceMap[i]] = i;
+
+        long[] words = new long[SolitairePosition.LONGS];
+        for (int i = 0; i < SolitairePosition.CARDS; ++i) {
+            int link = original.getLink(i);
+            if (link >= SolitairePosition.BASE_LINK && link < SolitairePosition.BASE_LINK + MAIN_COUNT) {
+                link = SolitairePosition.BASE_LINK + columnInverse[link - SolitairePosition.BASE_LINK];
+            } else if (link >= SolitairePosition.SPACE_LINK && link < SolitairePosition.SPACE_LINK + SPACE_COUNT) {
+                link = SolitairePosition.SPACE_LINK + spaceInverse[link - SolitairePosition.SPACE_LINK];
+            }
+            SolitairePosition.putLink(words, 0, i, link);
+        }
+        return new CanonicalPosition(new SolitairePosition(words, 0),
+                columnMap, columnInverse,
+                spaceMap, spaceInverse);
+    }
+
+    /**
+     * Stable insertion sort of indices by keys, small enough for 8 columns.
+     *
+     * @param keys sorting keys
+     * @return the indices in sorted order
+     */
+    private static int[] sortedOrder(int[] keys) {
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            int j = i;
+            while (j > 0 && keys[order[j - 1]] > keys[i]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        return order;
+    }
+
+    /**
+     * @return the canonical encoding
+     */
+    public SolitairePosition getPosition() {
+        return position;
+    }
+
+    /**
+     * @param canonicalCol a column in the canonical position
+     * @return the corresponding column in the original position
+     */
+    public int originalColumn(int canonicalCol) {
+        return columnMap[canonicalCol];
+    }
+
+    /**
+     * @param canonicalPos a space position in the canonical position
+     * @return the corresponding space position in the original position
+     */
+    public int originalSpace(int canonicalPos) {
+        return spaceMap[canonicalPos];
+    }
+
+    /**
+     * @param move an encoded move in the original position
+     * @return the same move in the canonical position
+     */
+    public int toCanonicalMove(int move) {
+        return mapMove(move, columnInverse, spaceInverse);
+    }
+
+    /**
+     * @param move an encoded move in the canonical position
+     * @return the same move in the original position
+     */
+    public int toOriginalMove(int move) {
+        return mapMove(move, columnMap, spaceMap);
+    }
+
+    private static int mapMove(int move, int[] columns, int[] spaces) {
+        int src = EncodedMove.src(move);
+        int dst = EncodedMove.dst(move);
+        switch (EncodedMove.type(move)) {
+            case EncodedMove.MAIN_TO_MAIN:
+                src = columns[src];
+                dst = columns[dst];
+                break;
+            case EncodedMove.MAIN_TO_SPACE:
+                src = columns[src];
+                dst = spaces[dst];
+                break;
+            case EncodedMove.SPACE_TO_MAIN:
+                src = spaces[src];
+                dst = columns[dst];
+                break;
+            case EncodedMove.SPACE_TO_SPACE:
+                src = spaces[src];
+                dst = spaces[dst];
+                break;
+            case EncodedMove.MAIN_TO_FINISHED:
+                src = columns[src];
+                break;
+            case EncodedMove.SPACE_TO_FINISHED:
+                src = spaces[src];
+                break;
+            case EncodedMove.FINISHED_TO_MAIN:
+                dst = columns[dst];
+                break;
+            case EncodedMove.FINISHED_TO_SPACE:
+                dst = spaces[dst];
+                break;
+            default:
+                throw new SolitaireException("Unexpected move " + move + ".");
+        }
+        return EncodedMove.encode(EncodedMove.type(move), src, dst, EncodedMove.count(move));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return position.equals(((CanonicalPosition) o).position);
+    }
+
+    @Override
+    public int hashCode() {
+        return position.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "CanonicalPosition{" + position + '}';
+    }
+}
@@ -0,0 +1,122 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+public class Card implements Comparable<Card> {
+    public static final int CLUB = 0;
+    public static final int DIAMOND = 1;
+    public static final int HEART = 2;
+    public static final int SPADE = 3;
+
+    /**
+     * The only 52 card instances, indexed by {@link Card#cardIndex()}.
+     */
+    private static final Card[] CARDS = new Card[52];
+
+    static {
+        for (int num = 1; num <= 13; ++num) {
+            for (int suit = 0; suit < 4; ++suit) {
+                Card card = new Card(num, suit);
+                CARDS[card.index] = card;
+            }
+        }
+    }
+
+    private final int num;
+    private final int suit;
+    private final int index;
+    private final boolean black;
+
+    private Card(int num, int suit) {
+        this.num = num;
+        this.suit = suit;
+        this.index = (num - 1) * 4 + suit;
+        this.black = suit == CLUB || suit == SPADE;
+    }
+
+    /**
+     * Returns the canonical instance of a card. Cards can be compared by {@code ==}.
+     *
+     * @param num  number of the card, from 1 to 13
+     * @param suit suit of the card
+     * @return the card
+     */
+    public static Card of(int num, int suit) {
+        return CARDS[(num - 1) * 4 + suit];
+    }
+
+    /**
+     * @param cardIndex the index returned by {@link Card#cardIndex()}
+     * @return the card with this index
+     */
+    public static Card fromIndex(int cardIndex) {
+        return CARDS[cardIndex];
+    }
+
+    @Override
+    public String toString() {
+        return "[" + getShowString() + ']';
+    }
+
+    @Override
+    public int compareTo(Card o) {
+        return Integer.compare(this.index, o.index);
+    }
+
+    public String getShowString() {
+        return getNumRep() + " " + getSuitRep();
+    }
+
+    public boolean isBlack() {
+        return black;
+    }
+
+    /**
+     * @param below the card to stack on
+     * @return whether this card can be placed on {@code below} in main area
+     */
+    public boolean canStackOn(Card below) {
+        return below.num == num + 1 && below.black != black;
+    }
+
+    public int getNum() {
+        return num;
+    }
+
+    public int getSuit() {
+        return suit;
+    }
+
+    public String getNumRep() {
+        if (num == 1) return "A";
+        if (num == 11) return "J";
+        if (num == 12) return "Q";
+        if (num == 13) return "K";
+        return String.valueOf(num);
+    }
+
+    public char getSuitRep() {
+        switch (suit) {
+            case CLUB:
+                return '♣';
+            case DIAMOND:
+                return '♦';
+            case HEART:
+                return '♥';
+            case SPADE:
+                return '♠';
+            default:
+                throw new RuntimeException("Unexpected suit");
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
+    }
+
+    /**
+     * @return a unique index of this card in [0, 52), ordered by number then by suit
+     */
+    public int cardIndex() {
+        return index;
+    }
+}
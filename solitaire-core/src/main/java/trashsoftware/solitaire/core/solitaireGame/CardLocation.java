@@ -1,10 +1,5 @@
 package trashsoftware.solitaire.core.solitaireGame;
 
-import trashsoftware.solitaire.fxml.controls.GameView;
-
-import java.util.Objects;
-import java.util.Set;
-import java.util.TreeSet;
 import java.util.function.Function;
 
 public abstract class CardLocation {
@@ -27,7 +22,7 @@ public abstract class CardLocation {
 
         CardLocation that = (CardLocation) o;
 
-        return Objects.equals(card, that.card);
+        return card == that.card;
     }
 
     @Override
@@ -39,8 +34,6 @@ public abstract class CardLocation {
 
     public abstract boolean isSelected(Card card);
 
-    public abstract double[] cardLeftXY(GameView gameView);
-
     /**
      * Reloads card from this location, or location processed by a function, returns the new loaded one.
      * <p>
@@ -75,24 +68,20 @@ public abstract class CardLocation {
     }
 
     public static class MainLocation extends CardLocation {
+        private static final long NOT_COMPUTED = -1L;
+
         private final int col, row;
-        private final Set<Card> highlightedCards = new TreeSet<>();
+        /**
+         * Bit {@link Card#cardIndex()} is set for each highlighted card. Computed from the layout when
+         * {@link #isSelected(Card)} is first called, since most locations are never drawn as selected.
+         */
+        private long highlightMask = NOT_COMPUTED;
 
         public MainLocation(SolitaireGame game, Card card, int col, int row) {
             super(game, card);
 
             this.col = col;
             this.row = row;
-
-            if (card != null) {
-                highlightedCards.add(card);
-                SolitaireDeck deck = game.getMainArea()[col];
-                if (deck.draggable(row)) {
-                    for (int i = row + 1; i < deck.size(); ++i) {
-                        highlightedCards.add(deck.get(i));
-                    }
-                }
-            }
         }
 
         public int getCol() {
@@ -103,11 +92,6 @@ public abstract class CardLocation {
             return row;
         }
 
-        @Override
-        public double[] cardLeftXY(GameView gameView) {
-            return gameView.xyOfMain(col, row);
-        }
-
         @Override
         public CardLocation reloadLocation() {
             return reloadLocation(row -> row);
@@ -136,7 +120,23 @@ public abstract class CardLocation {
 
         @Override
         public boolean isSelected(Card card) {
-            return highlightedCards.contains(card);
+            if (highlightMask == NOT_COMPUTED) highlightMask = computeHighlightMask();
+            return card != null && (highlightMask & (1L << card.cardIndex())) != 0;
+        }
+
+        /**
+         * @return mask of the card of this location, and of the cards above it if they can be dragged together
+         */
+        private long computeHighlightMask() {
+            if (card == null) return 0;
+            long mask = 1L << card.cardIndex();
+            SolitaireDeck deck = game.getMainArea()[col];
+            if (deck.draggable(row)) {
+                for (int i = row + 1; i < deck.size(); ++i) {
+                    mask |= 1L << deck.get(i).cardIndex();
+                }
+            }
+            return mask;
         }
 
         @Override
@@ -166,11 +166,6 @@ public abstract class CardLocation {
             }
         }
 
-        @Override
-        public double[] cardLeftXY(GameView gameView) {
-            return gameView.xyOfSpace(pos);
-        }
-
         @Override
         public CardLocation reloadLocation() {
             return new SpaceLocation(game, game.getSpaceArea()[pos], pos);
@@ -202,11 +197,6 @@ public abstract class CardLocation {
             }
         }
 
-        @Override
-        public double[] cardLeftXY(GameView gameView) {
-            return gameView.xyOfFinished(pos);
-        }
-
         @Override
         public CardLocation reloadLocation() {
             return new FinishedLocation(game, game.getFinishedArea()[pos].getSurfaceCard(), pos);
@@ -0,0 +1,118 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+/**
+ * Static helpers of moves encoded in a single {@code int}.
+ * <p>
+ * Layout, from the lowest bit: 4 bits of type, 4 bits of source, 4 bits of destination, 6 bits of count.
+ * Sources and destinations are column numbers in main area, positions in space area, or suits in finished
+ * area. The count is the number of moving cards, which is only greater than 1 in main-to-main moves.
+ * <p>
+ * Bit {@link #AUTO_PLAYED} marks moves of safe auto play in the history of a game. It is ignored by the
+ * other methods of this class.
+ * <p>
+ * {@code 0} is never a valid move.
+ */
+public final class EncodedMove {
+
+    public static final int MAIN_TO_MAIN = 1;
+    public static final int MAIN_TO_SPACE = 2;
+    public static final int SPACE_TO_MAIN = 3;
+    public static final int SPACE_TO_SPACE = 4;
+    public static final int MAIN_TO_FINISHED = 5;
+    public static final int SPACE_TO_FINISHED = 6;
+    public static final int FINISHED_TO_MAIN = 7;
+    public static final int FINISHED_TO_SPACE = 8;
+
+    public static final int AUTO_PLAYED = 1 << 18;
+
+    private EncodedMove() {
+    }
+
+    public static int encode(int type, int src, int dst, int count) {
+        return type | (src << 4) | (dst << 8) | (count << 12);
+    }
+
+    public static int type(int move) {
+        return move & 0xf;
+    }
+
+    public static int src(int move) {
+        return (move >>> 4) & 0xf;
+    }
+
+    public static int dst(int move) {
+        return (move >>> 8) & 0xf;
+    }
+
+    public static int count(int move) {
+        return (move >>> 12) & 0x3f;
+    }
+
+    /**
+     * @param move an encoded move
+     * @return the move that takes the cards of {@code move} back, without {@link #AUTO_PLAYED}
+     */
+    public static int inverse(int move) {
+        int src = src(move);
+        int dst = dst(move);
+        int count = count(move);
+        switch (type(move)) {
+            case MAIN_TO_MAIN:
+                return encode(MAIN_TO_MAIN, dst, src, count);
+            case MAIN_TO_SPACE:
+                return encode(SPACE_TO_MAIN, dst, src, count);
+            case SPACE_TO_MAIN:
+                return encode(MAIN_TO_SPACE, dst, src, count);
+            case SPACE_TO_SPACE:
+                return encode(SPACE_TO_SPACE, dst, src, count);
+            case MAIN_TO_FINISHED:
+                return encode(FINISHED_TO_MAIN, dst, src, count);
+            case SPACE_TO_FINISHED:
+                return encode(FINISHED_TO_SPACE, dst, src, count);
+            case FINISHED_TO_MAIN:
+                return encode(MAIN_TO_FINISHED, dst, src, count);
+            case FINISHED_TO_SPACE:
+                return encode(SPACE_TO_FINISHED, dst, src, count);
+            default:
+                throw new SolitaireException("Unexpected move " + move + ".");
+        }
+    }
+
+    public static boolean isAutoPlayed(int move) {
+        return (move & AUTO_PLAYED) != 0;
+    }
+
+    public static String toString(int move) {
+        String typeName;
+        switch (type(move)) {
+            case MAIN_TO_MAIN:
+                typeName = "MainToMain";
+                break;
+            case MAIN_TO_SPACE:
+                typeName = "MainToSpace";
+                break;
+            case SPACE_TO_MAIN:
+                typeName = "SpaceToMain";
+                break;
+            case SPACE_TO_SPACE:
+                typeName = "SpaceToSpace";
+                break;
+            case MAIN_TO_FINISHED:
+                typeName = "MainToFinished";
+                break;
+            case SPACE_TO_FINISHED:
+                typeName = "SpaceToFinished";
+                break;
+            case FINISHED_TO_MAIN:
+                typeName = "FinishedToMain";
+                break;
+            case FINISHED_TO_SPACE:
+                typeName = "FinishedToSpace";
+                break;
+            default:
+                typeName = "Unknown";
+                break;
+        }
+        return String.format("%s{%d to %d, %d cards}", typeName, src(move), dst(move), count(move));
+    }
+}
@@ -0,0 +1,99 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reproducible deals, each identified by a 64-bit deal number.
+ * <p>
+ * The cards not put to finished area by {@link SolitaireRules#getInitialFinishes()} are shuffled by
+ * Fisher-Yates with a SplitMix64 generator seeded by the deal number, then dealt one by one to the main
+ * columns from left to right. The same deal number and initial finishes always give the same layout.
+ */
+public final class SolitaireDeal {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private SolitaireDeal() {
+    }
+
+    /**
+     * @return a deal number chosen at random
+     */
+    public static long randomDealNumber() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Writes the {@link Card#cardIndex()} of the cards in main area of a deal, in dealing order, into
+     * {@code order}. The card at {@code order[i]} goes to main column {@code i % 8}.
+     *
+     * @param dealNumber      the deal number
+     * @param initialFinishes number of each suit put to finished area
+     * @param order           the destination, at least {@link SolitairePosition#CARDS} long
+     * @return number of cards written
+     */
+    public static int dealOrder(long dealNumber, int initialFinishes, int[] order) {
+        int first = initialFinishes * 4;
+        int count = SolitairePosition.CARDS - first;
+        for (int i = 0; i < count; ++i) order[i] = first + i;
+
+        long state = SolitaireZobrist.mix(dealNumber);
+        for (int i = count - 1; i > 0; --i) {
+            state += GOLDEN_GAMMA;
+            int j = (int) (((SolitaireZobrist.mix(state) >>> 32) * (i + 1)) >>> 32);  // uniform in [0, i]
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return count;
+    }
+
+    /**
+     * Writes {@code count} consecutive deals into a flat buffer of positions, without creating any object
+     * per deal.
+     * <p>
+     * Deal {@code firstDealNumber + k} is written to {@code dst[offset + k * LONGS]} in the format of
+     * {@link SolitairePosition#SolitairePosition(long[], int)}.
+     *
+     * @param firstDealNumber the deal number of the first deal
+     * @param count           number of deals
+     * @param initialFinishes number of each suit put to finished area
+     * @param dst             the destination, at least {@code offset + count * LONGS} long
+     * @param offset          index of the first word
+     */
+    public static void generate(long firstDealNumber, int count, int initialFinishes, long[] dst, int offset) {
+        int[] order = new int[SolitairePosition.CARDS];
+        int[] below = new int[8];
+        long[] finishedWords = new long[SolitairePosition.LONGS];
+        for (int i = 0; i < initialFinishes * 4; ++i) {
+            SolitairePosition.putLink(finishedWords, 0, i, SolitairePosition.FINISHED_LINK);
+        }
+        for (int k = 0; k < count; ++k) {
+            int base = offset + k * SolitairePosition.LONGS;
+            System.arraycopy(finishedWords, 0, dst, base, SolitairePosition.LONGS);
+            writeMainArea(firstDealNumber + k, initialFinishes, order, below, dst, base);
+        }
+    }
+
+    /**
+     * @param dealNumber      the deal number
+     * @param initialFinishes number of each suit put to finished area
+     * @return the initial layout of the deal
+     */
+    public static SolitairePosition positionOf(long dealNumber, int initialFinishes) {
+        long[] words = new long[SolitairePosition.LONGS];
+        generate(dealNumber, 1, initialFinishes, words, 0);
+        return new SolitairePosition(words, 0);
+    }
+
+    private static void writeMainArea(long dealNumber, int initialFinishes,
+                                      int[] order, int[] below, long[] dst, int offset) {
+        int count = dealOrder(dealNumber, initialFinishes, order);
+        for (int c = 0; c < below.length; ++c) below[c] = SolitairePosition.BASE_LINK + c;
+        for (int i = 0; i < count; ++i) {
+            int col = i & 7;
+            SolitairePosition.putLink(dst, offset, order[i], below[col]);
+            below[col] = order[i];
+        }
+    }
+}
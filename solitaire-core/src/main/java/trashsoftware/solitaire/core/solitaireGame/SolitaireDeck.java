@@ -0,0 +1,188 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class SolitaireDeck extends ArrayList<Card> {
+
+    /**
+     * {@code runs[i]} is the length of the ordered alternating-colour run ending at index {@code i}.
+     * <p>
+     * Kept in step with the content by every modifying method.
+     */
+    private int[] runs;
+
+    public SolitaireDeck() {
+        runs = new int[16];
+    }
+
+    public SolitaireDeck(Collection<Card> content) {
+        super(content);
+        runs = new int[Math.max(16, size())];
+        recomputeRuns(0);
+    }
+
+    /**
+     * @return the card at the last position of the deck, or {@code null} if the deck is empty
+     */
+    public Card getSurfaceCard() {
+        if (isEmpty()) return null;
+        else return get(size() - 1);
+    }
+
+    public Card removeSurfaceCard() {
+        if (isEmpty()) throw new SolitaireException("No cards to remove.");
+        else return remove(size() - 1);
+    }
+
+    public Card removeSurfaceCardIfNotEmpty() {
+        if (isEmpty()) return null;
+        else return remove(size() - 1);
+    }
+
+    public SolitaireDeck removeToSize(int targetSize) {
+        SolitaireDeck rtn = new SolitaireDeck(subList(targetSize, size()));
+        removeRange(targetSize, size());
+        return rtn;
+    }
+
+    /**
+     * Moves the last {@code count} cards of this deck to the end of {@code dst}, keeping their order.
+     *
+     * @param dst   the destination deck
+     * @param count number of cards to move
+     */
+    void moveSurfaceCardsTo(SolitaireDeck dst, int count) {
+        int from = size() - count;
+        for (int i = from; i < size(); ++i) dst.add(get(i));
+        removeRange(from, size());
+    }
+
+    /**
+     * This method only used for decks in main area.
+     *
+     * @param card the card to be appended
+     * @return {@code true} if append success
+     */
+    public boolean appendable(Card card) {
+        Card last = getSurfaceCard();
+        if (last == null) return true;
+        return card.canStackOn(last);
+    }
+
+    public boolean draggable(int row) {
+        if (row < 0 || row >= size()) return false;
+        return size() - row <= runs[size() - 1];
+    }
+
+    public int getContinuousCount() {
+        if (isEmpty()) return 0;
+        return runs[size() - 1];
+    }
+
+    private int runAt(int index) {
+        if (index > 0 && get(index).canStackOn(get(index - 1))) return runs[index - 1] + 1;
+        return 1;
+    }
+
+    private void recomputeRuns(int fromIndex) {
+        if (runs.length < size()) {
+            int[] newRuns = new int[Math.max(size(), runs.length * 2)];
+            System.arraycopy(runs, 0, newRuns, 0, runs.length);
+            runs = newRuns;
+        }
+        for (int i = fromIndex; i < size(); ++i) runs[i] = runAt(i);
+    }
+
+    @Override
+    public boolean add(Card card) {
+        super.add(card);
+        recomputeRuns(size() - 1);
+        return true;
+    }
+
+    @Override
+    public void add(int index, Card element) {
+        super.add(index, element);
+        recomputeRuns(index);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Card> c) {
+        int from = size();
+        boolean changed = super.addAll(c);
+        recomputeRuns(from);
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Card> c) {
+        boolean changed = super.addAll(index, c);
+        recomputeRuns(index);
+        return changed;
+    }
+
+    @Override
+    public Card set(int index, Card element) {
+        Card old = super.set(index, element);
+        recomputeRuns(index);
+        return old;
+    }
+
+    @Override
+    public Card remove(int index) {
+        Card removed = super.remove(index);
+        if (index < size()) recomputeRuns(index);  // removing the surface leaves all other runs unchanged
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index == -1) return false;
+        remove(index);
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        super.removeRange(fromIndex, toIndex);
+        if (fromIndex < size()) recomputeRuns(fromIndex);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = super.removeAll(c);
+        recomputeRuns(0);
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        boolean changed = super.retainAll(c);
+        recomputeRuns(0);
+        return changed;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Card> filter) {
+        boolean changed = super.removeIf(filter);
+        recomputeRuns(0);
+        return changed;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Card> operator) {
+        super.replaceAll(operator);
+        recomputeRuns(0);
+    }
+
+    @Override
+    public void sort(Comparator<? super Card> c) {
+        super.sort(c);
+        recomputeRuns(0);
+    }
+}
@@ -0,0 +1,1044 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+
+import java.util.*;
+
+public class SolitaireGame {
+
+    /**
+     * The least length of a buffer passed to {@link #generateMoves(int[])} or {@link #generateAllMoves(int[])}.
+     */
+    public static final int MAX_GENERATED_MOVES = 256;
+
+    final SolitaireDeck[] mainArea = new SolitaireDeck[8];
+    final Card[] spaceArea = new Card[4];
+    final SolitaireDeck[] finishedArea = new SolitaireDeck[4];
+    final SolitaireRules rules;
+    /**
+     * Encoded moves done, oldest first. Moves of safe auto play have {@link EncodedMove#AUTO_PLAYED} set.
+     */
+    private int[] history = new int[64];
+    private int historySize = 0;
+    private int stepsCount = 0;
+    private int[] finalScore = null;
+    /**
+     * Zobrist hash of the current layout, maintained by the card transfer methods below.
+     */
+    private long positionHash;
+    /**
+     * Number of adjacent pairs in main area where a card lies on a card with lower or equal number.
+     */
+    private int inversions;
+    /**
+     * Number of empty spaces and of empty main columns, maintained by the card transfer methods below.
+     */
+    private int freeSpaces, emptyColumns;
+    /**
+     * The deal number of the initial layout, or {@code null} if the layout does not come from a deal.
+     */
+    private Long dealNumber;
+    private HistoryListener historyListener;
+    private final int[] autoPlayBuffer = new int[SolitairePosition.CARDS];
+
+    /**
+     * Creates a game with a random deal.
+     *
+     * @param rules the rules
+     */
+    public SolitaireGame(SolitaireRules rules) {
+        this(rules, SolitaireDeal.randomDealNumber());
+    }
+
+    /**
+     * Creates a game with the deal {@code dealNumber}, which is the same on every run.
+     *
+     * @param rules      the rules
+     * @param dealNumber the deal number
+     * @see SolitaireDeal
+     */
+    public SolitaireGame(SolitaireRules rules, long dealNumber) {
+        this.rules = rules;
+        for (int i = 0; i < mainArea.length; ++i) mainArea[i] = new SolitaireDeck();
+        for (int i = 0; i < finishedArea.length; ++i) finishedArea[i] = new SolitaireDeck();
+        initGame(dealNumber);
+    }
+
+    /**
+     * Creates a game with the layout of {@code position}.
+     *
+     * @param rules    the rules
+     * @param position the initial layout
+     * @see SolitairePosition#toGame(SolitaireRules)
+     */
+    SolitaireGame(SolitaireRules rules, SolitairePosition position) {
+        this.rules = rules;
+        for (int i = 0; i < mainArea.length; ++i) mainArea[i] = new SolitaireDeck();
+        for (int i = 0; i < finishedArea.length; ++i) finishedArea[i] = new SolitaireDeck();
+        position.restoreTo(this);
+        recomputeCaches();
+    }
+
+    public SolitaireDeck[] getMainArea() {
+        return mainArea;
+    }
+
+    public Card[] getSpaceArea() {
+        return spaceArea;
+    }
+
+    public SolitaireDeck[] getFinishedArea() {
+        return finishedArea;
+    }
+
+    public SolitaireRules getRules() {
+        return rules;
+    }
+
+    /**
+     * @return the deal number of this game, or {@code null} if the game was created from a position
+     */
+    public Long getDealNumber() {
+        return dealNumber;
+    }
+
+    /**
+     * @param historyListener the listener of moves, undos and restarts, or {@code null} for none
+     */
+    public void setHistoryListener(HistoryListener historyListener) {
+        this.historyListener = historyListener;
+    }
+
+    /**
+     * @return a compact snapshot of the current layout
+     */
+    public SolitairePosition getPosition() {
+        return SolitairePosition.of(this);
+    }
+
+    /**
+     * Replaces the current layout by {@code position} and clears all moves and scores.
+     *
+     * @param position the new layout
+     */
+    public void loadPosition(SolitairePosition position) {
+        position.restoreTo(this);
+        recomputeCaches();
+        dealNumber = null;
+        historySize = 0;
+        stepsCount = 0;
+        finalScore = null;
+    }
+
+    /**
+     * Returns the Zobrist hash of the current layout.
+     * <p>
+     * The hash is updated in constant time by every move and undo. It does not depend on which space holds a
+     * card or on the order of the main columns, so layouts that only differ in these have the same hash.
+     *
+     * @return the position hash
+     */
+    public long getPositionHash() {
+        return positionHash;
+    }
+
+    public void restartGame() {
+        while (historySize > 0) undoEncoded(history[--historySize]);
+        stepsCount = 0;
+        finalScore = null;
+        if (historyListener != null) historyListener.restarted();
+    }
+
+    /**
+     * @return whether every main column is in descending order, so the game can be finished automatically
+     */
+    public boolean canAutoFinish() {
+        return inversions == 0;
+    }
+
+    public SolitaireMove nextAutoMove() {
+        for (int c = 0; c < mainArea.length; ++c) {
+            SolitaireDeck deck = mainArea[c];
+            Card surface = deck.getSurfaceCard();
+            if (SolitaireMove.movableToFinished(this, surface)) {  // null check inside this
+                CardLocation.FinishedLocation dst = new CardLocation.FinishedLocation(
+                        this,
+                        finishedArea[surface.getSuit()].getSurfaceCard(),
+                        surface.getSuit());
+                CardLocation.MainLocation src = new CardLocation.MainLocation(
+                        this,
+                        surface,
+                        c,
+                        deck.size() - 1);
+                return new SolitaireMove.MainToFinished(
+                        this,
+                        src,
+                        dst
+                );
+            }
+        }
+        for (int i = 0; i < spaceArea.length; ++i) {
+            Card card = spaceArea[i];
+            if (SolitaireMove.movableToFinished(this, card)) {
+                CardLocation.FinishedLocation dst = new CardLocation.FinishedLocation(
+                        this,
+                        finishedArea[card.getSuit()].getSurfaceCard(),
+                        card.getSuit());
+                CardLocation.SpaceLocation src = new CardLocation.SpaceLocation(
+                        this,
+                        card,
+                        i
+                );
+                return new SolitaireMove.SpaceToFinished(
+                        this,
+                        src,
+                        dst
+                );
+            }
+        }
+        throw new SolitaireException("Unexpected error, cannot auto finish.");
+    }
+
+    private void initGame(long dealNumber) {
+        this.dealNumber = dealNumber;
+        // initial finishes
+        for (int x = 0; x < rules.getInitialFinishes() * 4; ++x) {
+            Card card = Card.fromIndex(x);
+            finishedArea[card.getSuit()].add(card);
+        }
+        int[] order = new int[SolitairePosition.CARDS];
+        int count = SolitaireDeal.dealOrder(dealNumber, rules.getInitialFinishes(), order);
+        for (int i = 0; i < count; ++i) {
+            mainArea[i % mainArea.length].add(Card.fromIndex(order[i]));
+        }
+        recomputeCaches();
+    }
+
+    /**
+     * Recomputes all incrementally maintained values from scratch, after the layout is replaced.
+     */
+    private void recomputeCaches() {
+        positionHash = SolitairePosition.of(this).positionHash();
+        inversions = 0;
+        freeSpaces = 0;
+        for (Card card : spaceArea) if (card == null) freeSpaces++;
+        emptyColumns = 0;
+        for (SolitaireDeck deck : mainArea) {
+            if (deck.isEmpty()) emptyColumns++;
+            for (int i = 1; i < deck.size(); ++i) {
+                if (isInversion(deck.get(i - 1), deck.get(i))) inversions++;
+            }
+        }
+    }
+
+    /**
+     * @return number of adjacent pairs in main area where a card lies on a card with lower or equal number
+     */
+    int getInversionCount() {
+        return inversions;
+    }
+
+    private static boolean isInversion(Card below, Card above) {
+        return below.getNum() <= above.getNum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("SolitaireGame{\nFinished:\n");
+        for (SolitaireDeck finished : finishedArea) {
+            builder.append(finished.getSurfaceCard()).append(", ");
+        }
+        builder.append("\nSpace:\n");
+        builder.append(Arrays.toString(spaceArea));
+        builder.append("\nMain area:\n");
+        for (int i = 0; i < mainArea.length; ++i) {
+            SolitaireDeck deck = mainArea[i];
+            builder.append(i).append(": ").append(deck.toString()).append("\n");
+        }
+        return builder.toString();
+    }
+
+    public SolitaireHint getHint() {
+        // candidates are visited in a fixed order, the first one of the best precedence wins
+        int bestPrecedence = Integer.MAX_VALUE;
+        int bestMove = 0;
+        int emptyIndex = -1;  // destination of PRE_EMPTY_MAIN or PRE_EMPTY_SPACE
+        for (int c = 0; c < mainArea.length; ++c) {
+            SolitaireDeck deck = mainArea[c];
+            if (deck.isEmpty()) {
+                if (SolitaireHint.PRE_EMPTY_MAIN < bestPrecedence) {
+                    bestPrecedence = SolitaireHint.PRE_EMPTY_MAIN;
+                    emptyIndex = c;
+                }
+                continue;
+            }
+
+            Card surface = deck.getSurfaceCard();
+
+            // try main to finished
+            if (SolitaireHint.PRE_MAIN_TO_FINISH < bestPrecedence &&
+                    SolitaireMove.movableToFinished(this, surface)) {
+                bestPrecedence = SolitaireHint.PRE_MAIN_TO_FINISH;
+                bestMove = EncodedMove.encode(EncodedMove.MAIN_TO_FINISHED, c, surface.getSuit(), 1);
+            }
+
+            // try main to main
+            if (SolitaireHint.PRE_MAIN_TO_MAIN < bestPrecedence) {
+                int srcContinuous = deck.getContinuousCount();
+                search:
+                for (int moveCount = srcContinuous; moveCount > 0; --moveCount) {
+                    for (int dc = 0; dc < mainArea.length; ++dc) {
+                        if (dc != c && movableMainToMain(c, moveCount, dc)) {
+                            int dstContinuousAfter = mainArea[dc].getContinuousCount() + moveCount;
+                            if (dstContinuousAfter > srcContinuous) {
+                                // longer continuous after move
+                                bestPrecedence = SolitaireHint.PRE_MAIN_TO_MAIN;
+                                bestMove = EncodedMove.encode(EncodedMove.MAIN_TO_MAIN, c, dc, moveCount);
+                                break search;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // try space area
+        for (int pos = 0; pos < spaceArea.length; ++pos) {
+            Card card = spaceArea[pos];
+
+            // use this space
+            if (card == null) {
+                if (SolitaireHint.PRE_EMPTY_SPACE < bestPrecedence) {
+                    bestPrecedence = SolitaireHint.PRE_EMPTY_SPACE;
+                    emptyIndex = pos;
+                }
+                continue;
+            }
+
+            // try space to finished
+            if (SolitaireHint.PRE_SPACE_TO_FINISH < bestPrecedence && SolitaireMove.movableToFinished(this, card)) {
+                bestPrecedence = SolitaireHint.PRE_SPACE_TO_FINISH;
+                bestMove = EncodedMove.encode(EncodedMove.SPACE_TO_FINISHED, pos, card.getSuit(), 1);
+            }
+
+            // try space to main
+            if (SolitaireHint.PRE_SPACE_TO_MAIN < bestPrecedence) {
+                for (int c = 0; c < mainArea.length; ++c) {
+                    if (mainArea[c].appendable(card)) {
+                        bestPrecedence = SolitaireHint.PRE_SPACE_TO_MAIN;
+                        bestMove = EncodedMove.encode(EncodedMove.SPACE_TO_MAIN, pos, c, 1);
+                        break;
+                    }
+                }
+            }
+        }
+
+        switch (bestPrecedence) {
+            case Integer.MAX_VALUE:
+                return null;
+            case SolitaireHint.PRE_EMPTY_MAIN:
+                return new SolitaireHint(
+                        null,
+                        new CardLocation.MainLocation(this, null, emptyIndex, 0),  // all +1 for main destinations
+                        bestPrecedence);
+            case SolitaireHint.PRE_EMPTY_SPACE:
+                return new SolitaireHint(
+                        null,
+                        new CardLocation.SpaceLocation(this, null, emptyIndex),
+                        bestPrecedence);
+            default:
+                return new SolitaireHint(srcLocationOf(bestMove), dstLocationOf(bestMove), bestPrecedence);
+        }
+    }
+
+    /**
+     * Creates a hint showing an encoded move, for example one chosen by a search.
+     *
+     * @param move a legal encoded move in the current layout
+     * @return the hint
+     */
+    public SolitaireHint hintOf(int move) {
+        return new SolitaireHint(srcLocationOf(move), dstLocationOf(move), SolitaireHint.PRE_LOOKAHEAD);
+    }
+
+    /**
+     * Writes all legal moves that may be useful into {@code buffer}, without creating any object.
+     * <p>
+     * Moves that are equivalent to others are skipped: only the first empty column and the first empty space
+     * are used as destinations, a whole column is never moved to an empty column, and moves between spaces or
+     * out of finished area are not generated.
+     *
+     * @param buffer the destination, with a length at least {@link #MAX_GENERATED_MOVES}
+     * @return the number of moves written
+     * @see #generateAllMoves(int[])
+     */
+    public int generateMoves(int[] buffer) {
+        int n = 0;
+        int firstEmptyMain = -1;
+        int firstEmptySpace = -1;
+        for (int c = 0; emptyColumns > 0 && c < mainArea.length; ++c) {
+            if (mainArea[c].isEmpty()) {
+                firstEmptyMain = c;
+                break;
+            }
+        }
+        for (int pos = 0; freeSpaces > 0 && pos < spaceArea.length; ++pos) {
+            if (spaceArea[pos] == null) {
+                firstEmptySpace = pos;
+                break;
+            }
+        }
+
+        // to finished
+        for (int c = 0; c < mainArea.length; ++c) {
+            Card surface = mainArea[c].getSurfaceCard();
+            if (SolitaireMove.movableToFinished(this, surface)) {
+                buffer[n++] = EncodedMove.encode(EncodedMove.MAIN_TO_FINISHED, c, surface.getSuit(), 1);
+            }
+        }
+        for (int pos = 0; pos < spaceArea.length; ++pos) {
+            Card card = spaceArea[pos];
+            if (SolitaireMove.movableToFinished(this, card)) {
+                buffer[n++] = EncodedMove.encode(EncodedMove.SPACE_TO_FINISHED, pos, card.getSuit(), 1);
+            }
+        }
+
+        // main to main
+        for (int c = 0; c < mainArea.length; ++c) {
+            SolitaireDeck deck = mainArea[c];
+            if (deck.isEmpty()) continue;
+            Card srcSurface = deck.getSurfaceCard();
+            int continuous = deck.getContinuousCount();
+            for (int dc = 0; dc < mainArea.length; ++dc) {
+                if (dc == c) continue;
+                Card dstSurface = mainArea[dc].getSurfaceCard();
+                if (dstSurface == null) {
+                    if (dc != firstEmptyMain) continue;
+                    for (int count = 1; count <= continuous && count < deck.size(); ++count) {
+                        if (movableMainToMain(c, count, dc)) {
+                            buffer[n++] = EncodedMove.encode(EncodedMove.MAIN_TO_MAIN, c, dc, count);
+                        }
+                    }
+                } else {
+                    int count = dstSurface.getNum() - srcSurface.getNum();
+                    if (count >= 1 && count <= continuous && movableMainToMain(c, count, dc)) {
+                        buffer[n++] = EncodedMove.encode(EncodedMove.MAIN_TO_MAIN, c, dc, count);
+                    }
+                }
+            }
+        }
+
+        // space to main
+        for (int pos = 0; pos < spaceArea.length; ++pos) {
+            Card card = spaceArea[pos];
+            if (card == null) continue;
+            for (int c = 0; c < mainArea.length; ++c) {
+                SolitaireDeck deck = mainArea[c];
+                if (deck.isEmpty() ? c == firstEmptyMain : deck.appendable(card)) {
+                    buffer[n++] = EncodedMove.encode(EncodedMove.SPACE_TO_MAIN, pos, c, 1);
+                }
+            }
+        }
+
+        // main to space
+        if (firstEmptySpace != -1) {
+            for (int c = 0; c < mainArea.length; ++c) {
+                if (!mainArea[c].isEmpty()) {
+                    buffer[n++] = EncodedMove.encode(EncodedMove.MAIN_TO_SPACE, c, firstEmptySpace, 1);
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Writes the moves of {@link #generateMoves(int[])} followed by the moves out of finished area.
+     * <p>
+     * Moves between spaces are still skipped, as are the other moves equivalent to a generated one, so every
+     * position reachable by legal moves is reachable by these moves.
+     *
+     * @param buffer the destination, with a length at least {@link #MAX_GENERATED_MOVES}
+     * @return the number of moves written
+     */
+    public int generateAllMoves(int[] buffer) {
+        int n = generateMoves(buffer);
+        int firstEmptyMain = -1;
+        for (int c = 0; emptyColumns > 0 && c < mainArea.length; ++c) {
+            if (mainArea[c].isEmpty()) {
+                firstEmptyMain = c;
+                break;
+            }
+        }
+        int firstEmptySpace = -1;
+        for (int pos = 0; freeSpaces > 0 && pos < spaceArea.length; ++pos) {
+            if (spaceArea[pos] == null) {
+                firstEmptySpace = pos;
+                break;
+            }
+        }
+        for (int suit = 0; suit < finishedArea.length; ++suit) {
+            Card card = finishedArea[suit].getSurfaceCard();
+            if (card == null) continue;
+            for (int c = 0; c < mainArea.length; ++c) {
+                SolitaireDeck deck = mainArea[c];
+                if (deck.isEmpty() ? c == firstEmptyMain : deck.appendable(card)) {
+                    buffer[n++] = EncodedMove.encode(EncodedMove.FINISHED_TO_MAIN, suit, c, 1);
+                }
+            }
+            if (firstEmptySpace != -1) {
+                buffer[n++] = EncodedMove.encode(EncodedMove.FINISHED_TO_SPACE, suit, firstEmptySpace, 1);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Writes the moves to finished area of all cards that can never be needed again in main area, without
+     * changing the layout.
+     * <p>
+     * A card is safe to finish if its number is at most 2, or if both finished piles of the other color have
+     * reached its number minus one: then no card left in the game can be placed on it. Cards exposed by
+     * earlier moves of the batch are included, so performing all moves in order gives the final layout.
+     *
+     * @param buffer the destination, with a length at least {@link SolitairePosition#CARDS}
+     * @return the number of moves written
+     */
+    public int generateSafeAutoMoves(int[] buffer) {
+        int[] finishedNums = new int[finishedArea.length];
+        for (int suit = 0; suit < finishedArea.length; ++suit) finishedNums[suit] = finishedArea[suit].size();
+        int[] heights = new int[mainArea.length];
+        for (int c = 0; c < mainArea.length; ++c) heights[c] = mainArea[c].size();
+        int spacesLeft = (1 << spaceArea.length) - 1;  // bits of spaces not finished in this batch
+
+        int n = 0;
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (int c = 0; c < mainArea.length; ++c) {
+                while (heights[c] > 0) {
+                    Card card = mainArea[c].get(heights[c] - 1);
+                    if (!safeToFinish(card, finishedNums)) break;
+                    buffer[n++] = EncodedMove.encode(EncodedMove.MAIN_TO_FINISHED, c, card.getSuit(), 1);
+                    finishedNums[card.getSuit()]++;
+                    heights[c]--;
+                    progress = true;
+                }
+            }
+            for (int pos = 0; pos < spaceArea.length; ++pos) {
+                Card card = spaceArea[pos];
+                if ((spacesLeft & (1 << pos)) != 0 && card != null && safeToFinish(card, finishedNums)) {
+                    buffer[n++] = EncodedMove.encode(EncodedMove.SPACE_TO_FINISHED, pos, card.getSuit(), 1);
+                    finishedNums[card.getSuit()]++;
+                    spacesLeft &= ~(1 << pos);
+                    progress = true;
+                }
+            }
+        }
+        return n;
+    }
+
+    private static boolean safeToFinish(Card card, int[] finishedNums) {
+        int num = card.getNum();
+        if (finishedNums[card.getSuit()] != num - 1) return false;
+        if (num <= 2) return true;
+        for (int suit = 0; suit < finishedNums.length; ++suit) {
+            if (Card.of(1, suit).isBlack() != card.isBlack() && finishedNums[suit] < num - 1) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param move an encoded move
+     * @return whether this move can be performed in the current layout
+     */
+    public boolean movableEncoded(int move) {
+        int src = EncodedMove.src(move);
+        int dst = EncodedMove.dst(move);
+        switch (EncodedMove.type(move)) {
+            case EncodedMove.MAIN_TO_MAIN:
+                return src < mainArea.length && dst < mainArea.length && src != dst &&
+                        movableMainToMain(src, EncodedMove.count(move), dst);
+            case EncodedMove.MAIN_TO_SPACE:
+                return src < mainArea.length && dst < spaceArea.length &&
+                        !mainArea[src].isEmpty() && spaceArea[dst] == null;
+            case EncodedMove.SPACE_TO_MAIN:
+                return src < spaceArea.length && dst < mainArea.length &&
+                        spaceArea[src] != null && mainArea[dst].appendable(spaceArea[src]);
+            case EncodedMove.SPACE_TO_SPACE:
+                return src < spaceArea.length && dst < spaceArea.length &&
+                        spaceArea[src] != null && spaceArea[dst] == null;
+            case EncodedMove.MAIN_TO_FINISHED:
+                return src < mainArea.length &&
+                        SolitaireMove.movableToFinished(this, mainArea[src].getSurfaceCard());
+            case EncodedMove.SPACE_TO_FINISHED:
+                return src < spaceArea.length && SolitaireMove.movableToFinished(this, spaceArea[src]);
+            case EncodedMove.FINISHED_TO_MAIN:
+                return src < finishedArea.length && dst < mainArea.length &&
+                        !finishedArea[src].isEmpty() && mainArea[dst].appendable(finishedArea[src].getSurfaceCard());
+            case EncodedMove.FINISHED_TO_SPACE:
+                return src < finishedArea.length && dst < spaceArea.length &&
+                        !finishedArea[src].isEmpty() && spaceArea[dst] == null;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Performs an encoded move without checking it and without recording it as a step.
+     * <p>
+     * Precondition: the move is legal, for example generated by {@link #generateMoves(int[])}.
+     *
+     * @param move the encoded move
+     */
+    public void applyEncoded(int move) {
+        int src = EncodedMove.src(move);
+        int dst = EncodedMove.dst(move);
+        switch (EncodedMove.type(move)) {
+            case EncodedMove.MAIN_TO_MAIN:
+                transferMain(src, dst, EncodedMove.count(move));
+                break;
+            case EncodedMove.MAIN_TO_SPACE:
+                putSpace(dst, popMain(src));
+                break;
+            case EncodedMove.SPACE_TO_MAIN:
+                pushMain(dst, takeSpace(src));
+                break;
+            case EncodedMove.SPACE_TO_SPACE:
+                putSpace(dst, takeSpace(src));
+                break;
+            case EncodedMove.MAIN_TO_FINISHED:
+                pushFinished(popMain(src));
+                break;
+            case EncodedMove.SPACE_TO_FINISHED:
+                pushFinished(takeSpace(src));
+                break;
+            case EncodedMove.FINISHED_TO_MAIN:
+                pushMain(dst, popFinished(src));
+                break;
+            case EncodedMove.FINISHED_TO_SPACE:
+                putSpace(dst, popFinished(src));
+                break;
+            default:
+                throw new SolitaireException("Unexpected move " + move + ".");
+        }
+    }
+
+    /**
+     * Undoes an encoded move performed by {@link #applyEncoded(int)}.
+     *
+     * @param move the encoded move
+     */
+    public void undoEncoded(int move) {
+        int src = EncodedMove.src(move);
+        int dst = EncodedMove.dst(move);
+        switch (EncodedMove.type(move)) {
+            case EncodedMove.MAIN_TO_MAIN:
+                transferMain(dst, src, EncodedMove.count(move));
+                break;
+            case EncodedMove.MAIN_TO_SPACE:
+                pushMain(src, takeSpace(dst));
+                break;
+            case EncodedMove.SPACE_TO_MAIN:
+                putSpace(src, popMain(dst));
+                break;
+            case EncodedMove.SPACE_TO_SPACE:
+                putSpace(src, takeSpace(dst));
+                break;
+            case EncodedMove.MAIN_TO_FINISHED:
+                pushMain(src, popFinished(dst));
+                break;
+            case EncodedMove.SPACE_TO_FINISHED:
+                putSpace(src, popFinished(dst));
+                break;
+            case EncodedMove.FINISHED_TO_MAIN:
+                pushFinished(popMain(dst));
+                break;
+            case EncodedMove.FINISHED_TO_SPACE:
+                pushFinished(takeSpace(dst));
+                break;
+            default:
+                throw new SolitaireException("Unexpected move " + move + ".");
+        }
+    }
+
+    /**
+     * Creates the {@link SolitaireMove} equivalent to an encoded move in the current layout.
+     *
+     * @param move the encoded move
+     * @return the move object
+     */
+    public SolitaireMove decodeMove(int move) {
+        return srcLocationOf(move).createMove(dstLocationOf(move));
+    }
+
+    private CardLocation srcLocationOf(int move) {
+        int src = EncodedMove.src(move);
+        switch (EncodedMove.type(move)) {
+            case EncodedMove.MAIN_TO_MAIN:
+            case EncodedMove.MAIN_TO_SPACE:
+            case EncodedMove.MAIN_TO_FINISHED:
+                SolitaireDeck deck = mainArea[src];
+                int row = deck.size() - EncodedMove.count(move);
+                return new CardLocation.MainLocation(this, deck.get(row), src, row);
+            case EncodedMove.SPACE_TO_MAIN:
+            case EncodedMove.SPACE_TO_SPACE:
+            case EncodedMove.SPACE_TO_FINISHED:
+                return new CardLocation.SpaceLocation(this, spaceArea[src], src);
+            case EncodedMove.FINISHED_TO_MAIN:
+            case EncodedMove.FINISHED_TO_SPACE:
+                return new CardLocation.FinishedLocation(this, finishedArea[src].getSurfaceCard(), src);
+            default:
+                throw new SolitaireException("Unexpected move " + move + ".");
+        }
+    }
+
+    private CardLocation dstLocationOf(int move) {
+        int dst = EncodedMove.dst(move);
+        switch (EncodedMove.type(move)) {
+            case EncodedMove.MAIN_TO_MAIN:
+            case EncodedMove.SPACE_TO_MAIN:
+            case EncodedMove.FINISHED_TO_MAIN:
+                SolitaireDeck deck = mainArea[dst];
+                return new CardLocation.MainLocation(this, deck.getSurfaceCard(), dst, deck.size() - 1);
+            case EncodedMove.MAIN_TO_SPACE:
+            case EncodedMove.SPACE_TO_SPACE:
+            case EncodedMove.FINISHED_TO_SPACE:
+                return new CardLocation.SpaceLocation(this, spaceArea[dst], dst);
+            case EncodedMove.MAIN_TO_FINISHED:
+            case EncodedMove.SPACE_TO_FINISHED:
+                return new CardLocation.FinishedLocation(this, finishedArea[dst].getSurfaceCard(), dst);
+            default:
+                throw new SolitaireException("Unexpected move " + move + ".");
+        }
+    }
+
+    /**
+     * @param srcCol source column
+     * @param count  number of moving cards
+     * @param dstCol destination column
+     * @return whether the last {@code count} cards of {@code srcCol} can be moved to {@code dstCol}
+     */
+    boolean movableMainToMain(int srcCol, int count, int dstCol) {
+        SolitaireDeck srcDeck = mainArea[srcCol];
+        SolitaireDeck dstDeck = mainArea[dstCol];
+        if (count < 1 || count > srcDeck.size()) return false;
+        int row = srcDeck.size() - count;
+        if (count > 1) {
+            if (!srcDeck.draggable(row)) return false;
+            if (rules.isStrict() && count > getMaxMoveLength(dstDeck.isEmpty())) return false;
+        }
+        return dstDeck.appendable(srcDeck.get(row));
+    }
+
+    public boolean movable(SolitaireMove move) {
+        return move.movable();
+    }
+
+    /**
+     * Performs and records a move. If the rules have safe auto play, the cards that can never be needed again
+     * are then finished and recorded as one {@link SolitaireMove.AutoPlay}, which is not counted as a step and
+     * is undone with the move.
+     *
+     * @param move the move
+     * @return whether the move is a success
+     */
+    public boolean move(SolitaireMove move) {
+        if (move instanceof SolitaireMove.AutoPlay) {
+            if (!innerMove(move)) return false;
+            for (int autoMove : ((SolitaireMove.AutoPlay) move).getEncodedMoves()) {
+                pushHistory(autoMove | EncodedMove.AUTO_PLAYED);
+                if (historyListener != null) historyListener.moved(autoMove | EncodedMove.AUTO_PLAYED);
+            }
+            return true;
+        }
+        int encoded = move.encode();  // before the layout changes
+        boolean suc = innerMove(move);
+        if (suc) {
+            pushHistory(encoded);
+            stepsCount++;
+            if (historyListener != null) historyListener.moved(encoded);
+            if (rules.isSafeAutoPlay()) autoPlay();
+        }
+        return suc;
+    }
+
+    private void autoPlay() {
+        int count = generateSafeAutoMoves(autoPlayBuffer);
+        for (int i = 0; i < count; ++i) {
+            applyEncoded(autoPlayBuffer[i]);
+            pushHistory(autoPlayBuffer[i] | EncodedMove.AUTO_PLAYED);
+        }
+    }
+
+    private void pushHistory(int move) {
+        if (historySize == history.length) history = Arrays.copyOf(history, historySize * 2);
+        history[historySize++] = move;
+    }
+
+    /**
+     * @return number of moves at the end of the history that belong to the same safe auto play, or 0
+     */
+    private int lastAutoPlayLength() {
+        int i = historySize;
+        while (i > 0 && EncodedMove.isAutoPlayed(history[i - 1])) i--;
+        return historySize - i;
+    }
+
+    private boolean innerMove(SolitaireMove move) {
+        return move.move();
+    }
+
+    public boolean hasMoveToUndo() {
+        return historySize > 0;
+    }
+
+    /**
+     * @return number of moves at the end of the history undone by {@link #undo()}: the last move and the safe
+     * auto play after it, or only the safe auto play if no move is before it
+     */
+    private int lastUndoLength() {
+        int autoLength = lastAutoPlayLength();
+        return autoLength < historySize ? autoLength + 1 : autoLength;
+    }
+
+    /**
+     * Undoes the last move together with the safe auto play done after it, so that one undo takes back what one
+     * move did.
+     */
+    public void undo() {
+        if (historySize == 0) throw new NoSuchElementException();
+        int count = lastUndoLength();
+        for (int i = 0; i < count; ++i) undoEncoded(history[--historySize]);
+        if (historyListener != null) historyListener.undone();
+    }
+
+    /**
+     * Recreates the last move that {@link #undo()} would take back, with the locations it had before it was
+     * done. Cards finished by the safe auto play after it are still finished in the current layout.
+     *
+     * @return the last move, which is a {@link SolitaireMove.AutoPlay} if only safe auto play is in the history
+     */
+    public SolitaireMove getLastDoneMove() {
+        if (historySize == 0) throw new NoSuchElementException();
+        int count = lastUndoLength();
+        int first = historySize - count;
+        if (!EncodedMove.isAutoPlayed(history[first])) {
+            for (int i = historySize - 1; i >= first; --i) undoEncoded(history[i]);
+            SolitaireMove move = decodeMove(history[first]);  // locations from the layout before the move
+            for (int i = first; i < historySize; ++i) applyEncoded(history[i]);
+            return move;
+        }
+        int[] autoMoves = new int[count];
+        for (int i = 0; i < count; ++i) autoMoves[i] = history[first + i] & ~EncodedMove.AUTO_PLAYED;
+        return new SolitaireMove.AutoPlay(this, autoMoves);
+    }
+
+    /**
+     * @return number of encoded moves in the history
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * @param index index in the history, from {@code 0} to {@link #getHistorySize()} exclusive
+     * @return the encoded move, with {@link EncodedMove#AUTO_PLAYED} set if it was safe auto play
+     */
+    public int getHistoryMove(int index) {
+        if (index < 0 || index >= historySize) throw new IndexOutOfBoundsException(index);
+        return history[index];
+    }
+
+    /**
+     * @return the encoded moves done since the start or the last {@link #loadPosition(SolitairePosition)},
+     * oldest first, where moves of safe auto play have {@link EncodedMove#AUTO_PLAYED} set
+     */
+    public int[] getEncodedHistory() {
+        return Arrays.copyOf(history, historySize);
+    }
+
+    public boolean wining() {
+        for (SolitaireDeck deck : finishedArea) {
+            Card surface = deck.getSurfaceCard();
+            if (surface == null || surface.getNum() != 13) return false;
+        }
+        return true;
+    }
+
+    private int getBaseScore() {
+        int initialFinishes = getRules().getInitialFinishes();
+        int finishedScore = 0;
+        for (SolitaireDeck deck : getFinishedArea()) {
+            if (deck.getSurfaceCard() != null) {
+                finishedScore += (deck.getSurfaceCard().getNum() - initialFinishes) * getRules().getEachCardScore();
+            }
+        }
+        return finishedScore;
+    }
+
+    /**
+     * @param seconds time used
+     * @return an integer array, in [currentScore, timeScore]
+     */
+    public int[] getCurScore(int seconds) {
+        int timeReduced = getTimerReduced(seconds);
+        return new int[]{getBaseScore(), timeReduced};
+    }
+
+    /**
+     * This method must be called after game finished.
+     *
+     * @param seconds time used
+     * @return an integer array, in [totalScore, baseScore, stepScore, timeReducedScore]
+     */
+    public int[] getFinalScore(int seconds) {
+        if (finalScore == null) {
+            int baseScore = getBaseScore();
+            int timeReduced = getTimerReduced(seconds);
+            int stepScore = wining() ?
+                    (int) ((double) getRules().getEachCardScore() / stepsCount * 1500 / getDifficultyMultiplier()) :
+                    0;
+            finalScore = new int[]{baseScore + stepScore - timeReduced, baseScore, stepScore, timeReduced};
+        }
+        return finalScore;
+    }
+
+    private int getTimerReduced(int seconds) {
+        return (int) (getRules().getEachCardScore() * getDifficultyMultiplier() / 20.0 * seconds);
+    }
+
+    private double getDifficultyMultiplier() {
+        return 1 + (getRules().getInitialFinishes() / 2.0);
+    }
+
+    public int getStepsCount() {
+        return stepsCount;
+    }
+
+    /**
+     * @return number of empty spaces, in constant time
+     */
+    public int getFreeSpaceCount() {
+        return freeSpaces;
+    }
+
+    /**
+     * @return number of empty main columns, in constant time
+     */
+    public int getEmptyColumnCount() {
+        return emptyColumns;
+    }
+
+    /**
+     * @param dstIsEmpty whether the destination column is empty
+     * @return the maximum combo moving length from main to main
+     */
+    int getMaxMoveLength(boolean dstIsEmpty) {
+        int m = freeSpaces;
+        int n = emptyColumns;
+        if (dstIsEmpty) {
+            return (m + 1) * n;
+        } else {
+            return (m + 1) * (n + 1);
+        }
+    }
+
+    private static int mainLink(SolitaireDeck deck, int row) {
+        return row == 0 ? SolitaireZobrist.BASE : deck.get(row - 1).cardIndex();
+    }
+
+    /*
+     * Card transfers. All moves change the layout only through these methods, which keep the position hash,
+     * the inversions and the counts of empty spaces and columns up to date.
+     */
+
+    Card popMain(int col) {
+        SolitaireDeck deck = mainArea[col];
+        Card card = deck.removeSurfaceCard();
+        positionHash ^= SolitaireZobrist.key(card, mainLink(deck, deck.size()));
+        if (deck.isEmpty()) emptyColumns++;
+        else if (isInversion(deck.getSurfaceCard(), card)) inversions--;
+        return card;
+    }
+
+    void pushMain(int col, Card card) {
+        SolitaireDeck deck = mainArea[col];
+        positionHash ^= SolitaireZobrist.key(card, mainLink(deck, deck.size()));
+        if (deck.isEmpty()) emptyColumns--;
+        else if (isInversion(deck.getSurfaceCard(), card)) inversions++;
+        deck.add(card);
+    }
+
+    /**
+     * Moves the last {@code count} cards of a main column to the end of another main column.
+     * <p>
+     * Only the first moving card changes what it is lying on, so the hash and the inversions are updated in
+     * constant time.
+     *
+     * @param srcCol source column
+     * @param dstCol destination column
+     * @param count  number of cards to move
+     */
+    void transferMain(int srcCol, int dstCol, int count) {
+        SolitaireDeck srcDeck = mainArea[srcCol];
+        SolitaireDeck dstDeck = mainArea[dstCol];
+        int srcRow = srcDeck.size() - count;
+        Card first = srcDeck.get(srcRow);
+        positionHash ^= SolitaireZobrist.key(first, mainLink(srcDeck, srcRow)) ^
+                SolitaireZobrist.key(first, mainLink(dstDeck, dstDeck.size()));
+        if (srcRow == 0) emptyColumns++;
+        else if (isInversion(srcDeck.get(srcRow - 1), first)) inversions--;
+        if (dstDeck.isEmpty()) emptyColumns--;
+        else if (isInversion(dstDeck.getSurfaceCard(), first)) inversions++;
+        srcDeck.moveSurfaceCardsTo(dstDeck, count);
+    }
+
+    Card takeSpace(int pos) {
+        Card card = spaceArea[pos];
+        spaceArea[pos] = null;
+        freeSpaces++;
+        positionHash ^= SolitaireZobrist.key(card, SolitaireZobrist.SPACE);
+        return card;
+    }
+
+    void putSpace(int pos, Card card) {
+        spaceArea[pos] = card;
+        freeSpaces--;
+        positionHash ^= SolitaireZobrist.key(card, SolitaireZobrist.SPACE);
+    }
+
+    Card popFinished(int suit) {
+        Card card = finishedArea[suit].removeSurfaceCard();
+        positionHash ^= SolitaireZobrist.key(card, SolitaireZobrist.FINISHED);
+        return card;
+    }
+
+    void pushFinished(Card card) {
+        finishedArea[card.getSuit()].add(card);
+        positionHash ^= SolitaireZobrist.key(card, SolitaireZobrist.FINISHED);
+    }
+
+    /**
+     * Receives the changes of the history of a game, in the order they happen.
+     * <p>
+     * Safe auto play following a move is not reported, since it only depends on the move and the rules.
+     */
+    public interface HistoryListener {
+
+        /**
+         * @param move the encoded move, with {@link EncodedMove#AUTO_PLAYED} set if it was an explicit
+         *             {@link SolitaireMove.AutoPlay}
+         */
+        void moved(int move);
+
+        /**
+         * Called after {@link #undo()}.
+         */
+        void undone();
+
+        /**
+         * Called after {@link #restartGame()}.
+         */
+        void restarted();
+    }
+}
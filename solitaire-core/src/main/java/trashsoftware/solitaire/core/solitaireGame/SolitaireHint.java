@@ -3,6 +3,7 @@ package trashsoftware.solitaire.core.solitaireGame;
 public class SolitaireHint implements Comparable<SolitaireHint> {
 
     // The lower is the better
+    public static final int PRE_LOOKAHEAD = 0;  // chosen by searching moves ahead
     public static final int PRE_SPACE_TO_FINISH = 1;
     public static final int PRE_MAIN_TO_FINISH = 2;
     public static final int PRE_SPACE_TO_MAIN = 3;
@@ -19,17 +19,6 @@ public abstract class SolitaireMove {
         }
     }
 
-    protected static boolean moveToFinished(SolitaireGame game, Card card) {
-        if (card == null) return false;
-        if (movableToFinished(game, card)) {
-            SolitaireDeck deck = game.finishedArea[card.getSuit()];
-            deck.add(card);
-            return true;
-        } else {
-            return false;
-        }
-    }
-
     @Override
     public String toString() {
         return String.format("%s{%s to %s}", getClass().getSimpleName(), getSrcLocation(), getDstLocation());
@@ -57,6 +46,14 @@ public abstract class SolitaireMove {
 
     public abstract CardLocation getDstLocation();
 
+    /**
+     * Precondition: the layout is the one this move was created in.
+     *
+     * @return the encoded form of this move
+     * @see EncodedMove
+     */
+    abstract int encode();
+
     public static class MainToMain extends SolitaireMove {
         private final CardLocation.MainLocation srcLocation, dstLocation;
         private final int movingCardsCount;
@@ -83,35 +80,16 @@ public abstract class SolitaireMove {
 
         @Override
         public boolean movable() {
-            SolitaireDeck srcDeck = game.mainArea[srcLocation.getCol()];
-            SolitaireDeck dstDeck = game.mainArea[dstLocation.getCol()];
-            Card dstSurface = dstDeck.getSurfaceCard();
-            if (srcLocation.getRow() == srcDeck.size() - 1) {
-                if (dstSurface == null) {
-                    return true;
-                } else {
-                    Card srcSurface = srcDeck.getSurfaceCard();
-                    return dstDeck.appendable(srcSurface);
-                }
-            } else if (srcLocation.getRow() < srcDeck.size() - 1 && srcDeck.draggable(srcLocation.getRow())) {
-                int moveCount = srcDeck.size() - srcLocation.getRow();
-                if (game.rules.isStrict()) {
-                    if (moveCount <= game.getMaxMoveLength(dstDeck.isEmpty())) {
-                        return dstDeck.appendable(srcDeck.get(srcLocation.getRow()));
-                    }
-                } else {
-                    return dstDeck.appendable(srcDeck.get(srcLocation.getRow()));
-                }
-            }
-            return false;
+            if (srcLocation.getRow() < 0) return false;
+            int moveCount = game.mainArea[srcLocation.getCol()].size() - srcLocation.getRow();
+            return game.movableMainToMain(srcLocation.getCol(), moveCount, dstLocation.getCol());
         }
 
         @Override
         public boolean move() {
             if (movable()) {
                 SolitaireDeck srcDeck = game.mainArea[srcLocation.getCol()];
-                SolitaireDeck dstDeck = game.mainArea[dstLocation.getCol()];
-                dstDeck.addAll(srcDeck.removeToSize(srcLocation.getRow()));
+                game.transferMain(srcLocation.getCol(), dstLocation.getCol(), srcDeck.size() - srcLocation.getRow());
                 return true;
             } else {
                 return false;
@@ -120,13 +98,13 @@ public abstract class SolitaireMove {
 
         @Override
         public void undoMove() {
-            SolitaireDeck srcDeck = game.mainArea[srcLocation.getCol()];
-            SolitaireDeck dstDeck = game.mainArea[dstLocation.getCol()];
-            SolitaireDeck sub = new SolitaireDeck(dstDeck.subList(dstDeck.size() - movingCardsCount, dstDeck.size()));
-            srcDeck.addAll(sub);
-            for (int i = 0; i < movingCardsCount; ++i) {
-                dstDeck.removeSurfaceCard();
-            }
+            game.transferMain(dstLocation.getCol(), srcLocation.getCol(), movingCardsCount);
+        }
+
+        @Override
+        int encode() {
+            return EncodedMove.encode(EncodedMove.MAIN_TO_MAIN, srcLocation.getCol(), dstLocation.getCol(),
+                    movingCardsCount);
         }
     }
 
@@ -165,8 +143,7 @@ public abstract class SolitaireMove {
         @Override
         public boolean move() {
             if (movable()) {
-                SolitaireDeck deck = game.mainArea[srcLocation.getCol()];
-                game.spaceArea[dstLocation.getPos()] = deck.removeSurfaceCard();
+                game.putSpace(dstLocation.getPos(), game.popMain(srcLocation.getCol()));
                 return true;
             } else {
                 return false;
@@ -175,9 +152,12 @@ public abstract class SolitaireMove {
 
         @Override
         public void undoMove() {
-            Card card = game.spaceArea[dstLocation.getPos()];
-            game.spaceArea[dstLocation.getPos()] = null;
-            game.mainArea[srcLocation.getCol()].add(card);
+            game.pushMain(srcLocation.getCol(), game.takeSpace(dstLocation.getPos()));
+        }
+
+        @Override
+        int encode() {
+            return EncodedMove.encode(EncodedMove.MAIN_TO_SPACE, srcLocation.getCol(), dstLocation.getPos(), 1);
         }
     }
 
@@ -220,8 +200,7 @@ public abstract class SolitaireMove {
             if (card != null) {
                 SolitaireDeck dstDeck = game.mainArea[dstLocation.getCol()];
                 if (dstDeck.appendable(card)) {
-                    dstDeck.add(card);
-                    game.spaceArea[srcLocation.getPos()] = null;
+                    game.pushMain(dstLocation.getCol(), game.takeSpace(srcLocation.getPos()));
                     return true;
                 }
             }
@@ -230,7 +209,12 @@ public abstract class SolitaireMove {
 
         @Override
         public void undoMove() {
-            game.spaceArea[srcLocation.getPos()] = game.mainArea[dstLocation.getCol()].removeSurfaceCard();
+            game.putSpace(srcLocation.getPos(), game.popMain(dstLocation.getCol()));
+        }
+
+        @Override
+        int encode() {
+            return EncodedMove.encode(EncodedMove.SPACE_TO_MAIN, srcLocation.getPos(), dstLocation.getCol(), 1);
         }
     }
 
@@ -270,8 +254,7 @@ public abstract class SolitaireMove {
             Card card = game.spaceArea[srcLocation.getPos()];
             if (card != null) {
                 if (game.spaceArea[dstLocation.getPos()] == null) {
-                    game.spaceArea[dstLocation.getPos()] = card;
-                    game.spaceArea[srcLocation.getPos()] = null;
+                    game.putSpace(dstLocation.getPos(), game.takeSpace(srcLocation.getPos()));
                     return true;
                 }
             }
@@ -280,8 +263,12 @@ public abstract class SolitaireMove {
 
         @Override
         public void undoMove() {
-            game.spaceArea[srcLocation.getPos()] = game.spaceArea[dstLocation.getPos()];
-            game.spaceArea[dstLocation.getPos()] = null;
+            game.putSpace(srcLocation.getPos(), game.takeSpace(dstLocation.getPos()));
+        }
+
+        @Override
+        int encode() {
+            return EncodedMove.encode(EncodedMove.SPACE_TO_SPACE, srcLocation.getPos(), dstLocation.getPos(), 1);
         }
     }
 
@@ -323,8 +310,8 @@ public abstract class SolitaireMove {
             SolitaireDeck deck = game.mainArea[srcLocation.getCol()];
             if (srcLocation.getRow() == deck.size() - 1) {
                 Card card = deck.getSurfaceCard();
-                if (moveToFinished(game, card)) {
-                    deck.removeSurfaceCard();
+                if (movableToFinished(game, card)) {
+                    game.pushFinished(game.popMain(srcLocation.getCol()));
                     return true;
                 }
             }
@@ -333,7 +320,13 @@ public abstract class SolitaireMove {
 
         @Override
         public void undoMove() {
-            game.mainArea[srcLocation.getCol()].add(game.finishedArea[dstLocation.getPos()].removeSurfaceCard());
+            game.pushMain(srcLocation.getCol(), game.popFinished(srcLocation.getCard().getSuit()));
+        }
+
+        @Override
+        int encode() {
+            return EncodedMove.encode(EncodedMove.MAIN_TO_FINISHED, srcLocation.getCol(),
+                    srcLocation.getCard().getSuit(), 1);
         }
     }
 
@@ -378,8 +371,7 @@ public abstract class SolitaireMove {
             if (surface != null) {
                 SolitaireDeck dstDeck = game.mainArea[dstLocation.getCol()];
                 if (dstDeck.appendable(surface)) {
-                    dstDeck.add(surface);
-                    deck.removeSurfaceCard();
+                    game.pushMain(dstLocation.getCol(), game.popFinished(srcLocation.getPos()));
                     return true;
                 }
             }
@@ -388,7 +380,12 @@ public abstract class SolitaireMove {
 
         @Override
         public void undoMove() {
-            game.finishedArea[srcLocation.getPos()].add(game.mainArea[dstLocation.getCol()].removeSurfaceCard());
+            game.pushFinished(game.popMain(dstLocation.getCol()));
+        }
+
+        @Override
+        int encode() {
+            return EncodedMove.encode(EncodedMove.FINISHED_TO_MAIN, srcLocation.getPos(), dstLocation.getCol(), 1);
         }
     }
 
@@ -428,8 +425,8 @@ public abstract class SolitaireMove {
         public boolean move() {
             Card card = game.spaceArea[srcLocation.getPos()];
             if (card != null) {
-                if (moveToFinished(game, card)) {
-                    game.spaceArea[srcLocation.getPos()] = null;
+                if (movableToFinished(game, card)) {
+                    game.pushFinished(game.takeSpace(srcLocation.getPos()));
                     return true;
                 }
             }
@@ -438,7 +435,13 @@ public abstract class SolitaireMove {
 
         @Override
         public void undoMove() {
-            game.spaceArea[srcLocation.getPos()] = game.finishedArea[dstLocation.getPos()].removeSurfaceCard();
+            game.putSpace(srcLocation.getPos(), game.popFinished(srcLocation.getCard().getSuit()));
+        }
+
+        @Override
+        int encode() {
+            return EncodedMove.encode(EncodedMove.SPACE_TO_FINISHED, srcLocation.getPos(),
+                    srcLocation.getCard().getSuit(), 1);
         }
     }
 
@@ -481,7 +484,7 @@ public abstract class SolitaireMove {
             Card surface = deck.getSurfaceCard();
             if (surface != null) {
                 if (game.spaceArea[dstLocation.getPos()] == null) {
-                    game.spaceArea[dstLocation.getPos()] = deck.removeSurfaceCard();
+                    game.putSpace(dstLocation.getPos(), game.popFinished(srcLocation.getPos()));
                     return true;
                 }
             }
@@ -490,8 +493,87 @@ public abstract class SolitaireMove {
 
         @Override
         public void undoMove() {
-            game.finishedArea[srcLocation.getPos()].add(game.spaceArea[dstLocation.getPos()]);
-            game.spaceArea[dstLocation.getPos()] = null;
+            game.pushFinished(game.takeSpace(dstLocation.getPos()));
+        }
+
+        @Override
+        int encode() {
+            return EncodedMove.encode(EncodedMove.FINISHED_TO_SPACE, srcLocation.getPos(), dstLocation.getPos(), 1);
+        }
+    }
+
+    /**
+     * Cards moved to finished area together by safe auto play, undone together.
+     *
+     * @see SolitaireGame#generateSafeAutoMoves(int[])
+     */
+    public static class AutoPlay extends SolitaireMove {
+        private final int[] encodedMoves;
+
+        public AutoPlay(SolitaireGame game, int[] encodedMoves) {
+            super(game);
+
+            this.encodedMoves = encodedMoves;
+        }
+
+        /**
+         * @return the encoded moves, in the order they are performed
+         */
+        public int[] getEncodedMoves() {
+            return encodedMoves;
+        }
+
+        @Override
+        public CardLocation getSrcLocation() {
+            return null;
+        }
+
+        @Override
+        public CardLocation getDstLocation() {
+            return null;
+        }
+
+        /**
+         * Checks every encoded move in the layout left by the ones before it.
+         */
+        @Override
+        public boolean movable() {
+            if (!move()) return false;
+            undoMove();
+            return true;
+        }
+
+        /**
+         * Performs the encoded moves one by one, and takes back the ones done if a later one is not legal.
+         */
+        @Override
+        public boolean move() {
+            for (int i = 0; i < encodedMoves.length; ++i) {
+                if (!game.movableEncoded(encodedMoves[i])) {
+                    while (i > 0) game.undoEncoded(encodedMoves[--i]);
+                    return false;
+                }
+                game.applyEncoded(encodedMoves[i]);
+            }
+            return encodedMoves.length > 0;
+        }
+
+        @Override
+        public void undoMove() {
+            for (int i = encodedMoves.length - 1; i >= 0; --i) game.undoEncoded(encodedMoves[i]);
+        }
+
+        /**
+         * Always throws, because this move consists of several encoded moves.
+         */
+        @Override
+        int encode() {
+            throw new SolitaireException("Auto play has " + encodedMoves.length + " moves.");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s{%d cards}", getClass().getSimpleName(), encodedMoves.length);
         }
     }
 
@@ -527,5 +609,13 @@ public abstract class SolitaireMove {
         @Override
         public void undoMove() {
         }
+
+        /**
+         * @return always return 0, which is not a valid move
+         */
+        @Override
+        int encode() {
+            return 0;
+        }
     }
 }
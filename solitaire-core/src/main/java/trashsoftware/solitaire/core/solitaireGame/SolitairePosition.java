@@ -0,0 +1,205 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, compact snapshot of the layout of a {@link SolitaireGame}.
+ * <p>
+ * Each of the 52 cards takes exactly one byte, which tells what the card is lying on:
+ * <ul>
+ *     <li>{@code 0} to {@code 51}: the card with that {@link Card#cardIndex()} in the same main column</li>
+ *     <li>{@link #BASE_LINK} + col: the bottom of main column {@code col}</li>
+ *     <li>{@link #SPACE_LINK} + pos: the space cell {@code pos}</li>
+ *     <li>{@link #FINISHED_LINK}: the finished area of its suit</li>
+ * </ul>
+ * The 52 bytes are packed into {@link #LONGS} longs, so that a large number of positions can be stored
+ * in a flat {@code long[]} by {@link #encodeInto(SolitaireGame, long[], int)}.
+ * <p>
+ * The rules and the move history are not part of a position.
+ */
+public final class SolitairePosition {
+
+    public static final int CARDS = 52;
+    public static final int LONGS = 7;
+
+    public static final int BASE_LINK = 64;
+    public static final int SPACE_LINK = 96;
+    public static final int FINISHED_LINK = 127;
+
+    private final long[] words;
+
+    private SolitairePosition(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Reads a position previously written by {@link #encodeInto(SolitaireGame, long[], int)} or
+     * {@link #writeTo(long[], int)}.
+     *
+     * @param src    the source array
+     * @param offset index of the first word
+     */
+    public SolitairePosition(long[] src, int offset) {
+        this(Arrays.copyOfRange(src, offset, offset + LONGS));
+    }
+
+    public static SolitairePosition of(SolitaireGame game) {
+        long[] words = new long[LONGS];
+        encodeInto(game, words, 0);
+        return new SolitairePosition(words);
+    }
+
+    /**
+     * Writes the current layout of {@code game} into {@code dst[offset]} to {@code dst[offset + LONGS - 1]}
+     * without creating any object.
+     *
+     * @param game   the game to be encoded
+     * @param dst    the destination array
+     * @param offset index of the first word
+     */
+    public static void encodeInto(SolitaireGame game, long[] dst, int offset) {
+        Arrays.fill(dst, offset, offset + LONGS, 0L);
+        for (int c = 0; c < game.mainArea.length; ++c) {
+            SolitaireDeck deck = game.mainArea[c];
+            int below = BASE_LINK + c;
+            for (int r = 0; r < deck.size(); ++r) {
+                int index = deck.get(r).cardIndex();
+                putLink(dst, offset, index, below);
+                below = index;
+            }
+        }
+        for (int pos = 0; pos < game.spaceArea.length; ++pos) {
+            Card card = game.spaceArea[pos];
+            if (card != null) putLink(dst, offset, card.cardIndex(), SPACE_LINK + pos);
+        }
+        for (SolitaireDeck deck : game.finishedArea) {
+            for (Card card : deck) putLink(dst, offset, card.cardIndex(), FINISHED_LINK);
+        }
+    }
+
+    static void putLink(long[] words, int offset, int cardIndex, int link) {
+        words[offset + (cardIndex >> 3)] |= ((long) link) << ((cardIndex & 7) << 3);
+    }
+
+    private static int getLink(long[] words, int offset, int cardIndex) {
+        return (int) (words[offset + (cardIndex >> 3)] >>> ((cardIndex & 7) << 3)) & 0xff;
+    }
+
+    /**
+     * @param cardIndex the {@link Card#cardIndex()} of a card
+     * @return the byte describing what this card is lying on
+     */
+    public int getLink(int cardIndex) {
+        return getLink(words, 0, cardIndex);
+    }
+
+    /**
+     * @return the same hash as {@link SolitaireGame#getPositionHash()} of a game with this layout
+     */
+    public long positionHash() {
+        long hash = 0;
+        for (int i = 0; i < CARDS; ++i) {
+            hash ^= SolitaireZobrist.key(i, SolitaireZobrist.fromPositionLink(getLink(i)));
+        }
+        return hash;
+    }
+
+    /**
+     * @return the normal form of this position, which is the same for all column and space orders
+     */
+    public CanonicalPosition canonical() {
+        return CanonicalPosition.of(this);
+    }
+
+    public void writeTo(long[] dst, int offset) {
+        System.arraycopy(words, 0, dst, offset, LONGS);
+    }
+
+    /**
+     * Creates a new game with this layout and an empty move history.
+     *
+     * @param rules rules of the new game
+     * @return the new game
+     */
+    public SolitaireGame toGame(SolitaireRules rules) {
+        return new SolitaireGame(rules, this);
+    }
+
+    /**
+     * Replaces the layout of {@code game} by this position.
+     * <p>
+     * Throws {@link SolitaireException} if this position is not a valid layout.
+     *
+     * @param game the game to be overwritten
+     */
+    void restoreTo(SolitaireGame game) {
+        int[] above = new int[CARDS];
+        int[] bases = new int[game.mainArea.length];
+        Arrays.fill(above, -1);
+        Arrays.fill(bases, -1);
+        for (SolitaireDeck deck : game.mainArea) deck.clear();
+        for (SolitaireDeck deck : game.finishedArea) deck.clear();
+        Arrays.fill(game.spaceArea, null);
+
+        int[] finishedCounts = new int[game.finishedArea.length];
+        for (int i = 0; i < CARDS; ++i) {
+            int link = getLink(i);
+            if (link < CARDS) {
+                if (above[link] != -1) throw new SolitaireException("Two cards on one card.");
+                above[link] = i;
+            } else if (link >= BASE_LINK && link < BASE_LINK + bases.length) {
+                if (bases[link - BASE_LINK] != -1) throw new SolitaireException("Two bottom cards in one column.");
+                bases[link - BASE_LINK] = i;
+            } else if (link >= SPACE_LINK && link < SPACE_LINK + game.spaceArea.length) {
+                if (game.spaceArea[link - SPACE_LINK] != null)
+                    throw new SolitaireException("Two cards in one space.");
+                game.spaceArea[link - SPACE_LINK] = Card.fromIndex(i);
+            } else if (link == FINISHED_LINK) {
+                finishedCounts[Card.fromIndex(i).getSuit()]++;
+            } else {
+                throw new SolitaireException("Unexpected link " + link + ".");
+            }
+        }
+        int placed = 0;
+        for (int c = 0; c < bases.length; ++c) {
+            for (int index = bases[c]; index != -1; index = above[index]) {
+                game.mainArea[c].add(Card.fromIndex(index));
+                if (++placed > CARDS) throw new SolitaireException("Circular layout.");
+            }
+        }
+        for (int suit = 0; suit < finishedCounts.length; ++suit) {
+            for (int num = 1; num <= finishedCounts[suit]; ++num) {
+                Card card = Card.fromIndex((num - 1) * 4 + suit);
+                if (getLink(card.cardIndex()) != FINISHED_LINK)
+                    throw new SolitaireException("Gap in finished area.");
+                game.finishedArea[suit].add(card);
+            }
+            placed += finishedCounts[suit];
+        }
+        for (Card card : game.spaceArea) if (card != null) placed++;
+        if (placed != CARDS) throw new SolitaireException("Cards not reachable from any column.");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return Arrays.equals(words, ((SolitairePosition) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("SolitairePosition{");
+        for (int i = 0; i < CARDS; ++i) {
+            if (i != 0) builder.append(',');
+            builder.append(getLink(i));
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -2,11 +2,14 @@ package trashsoftware.solitaire.core.solitaireGame;
 
 import trashsoftware.solitaire.util.Configs;
 
+import java.util.Objects;
+
 public class SolitaireRules {
 
     private int initialFinishes = 0;
     private int eachCardScore;
     private boolean strict = true;
+    private boolean safeAutoPlay = false;
 
     private SolitaireRules() {
     }
@@ -22,10 +25,35 @@ public class SolitaireRules {
         return strict;
     }
 
+    /**
+     * @return whether cards that are never needed again go to finished area after every move
+     * @see SolitaireGame#generateSafeAutoMoves(int[])
+     */
+    public boolean isSafeAutoPlay() {
+        return safeAutoPlay;
+    }
+
     public int getEachCardScore() {
         return eachCardScore;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        SolitaireRules that = (SolitaireRules) o;
+        return initialFinishes == that.initialFinishes &&
+                eachCardScore == that.eachCardScore &&
+                strict == that.strict &&
+                safeAutoPlay == that.safeAutoPlay;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(initialFinishes, eachCardScore, strict, safeAutoPlay);
+    }
+
     public static class Builder {
         private final SolitaireRules rules = new SolitaireRules();
 
@@ -39,6 +67,11 @@ public class SolitaireRules {
             return this;
         }
 
+        public Builder safeAutoPlay(boolean safeAutoPlay) {
+            rules.safeAutoPlay = safeAutoPlay;
+            return this;
+        }
+
         public SolitaireRules build() {
             rules.eachCardScore = (int) Math.pow(13 - rules.initialFinishes, 3);
             if (!rules.strict) rules.eachCardScore = (int) (rules.eachCardScore * 0.75);
@@ -0,0 +1,61 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+/**
+ * Zobrist keys of solitaire positions.
+ * <p>
+ * A position is hashed as the xor of one key per card, chosen by what the card is lying on. Cards in main
+ * columns are keyed by the card below them, but all column bottoms share {@link #BASE}, and all space cells
+ * share {@link #SPACE}. Therefore the hash does not depend on the order of columns or spaces.
+ * <p>
+ * Keys are generated from a fixed seed, so hashes are stable between runs.
+ */
+final class SolitaireZobrist {
+
+    static final int BASE = 52;
+    static final int SPACE = 53;
+    static final int FINISHED = 54;
+    private static final int LINKS = 55;
+
+    private static final long[] KEYS = new long[SolitairePosition.CARDS * LINKS];
+
+    static {
+        long seed = 0x5EED5011_7A12E000L;
+        for (int i = 0; i < KEYS.length; ++i) {
+            seed += 0x9E3779B97F4A7C15L;
+            KEYS[i] = mix(seed);
+        }
+    }
+
+    private SolitaireZobrist() {
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param card the card
+     * @param link index of the card below, or one of {@link #BASE}, {@link #SPACE} and {@link #FINISHED}
+     * @return the key
+     */
+    static long key(Card card, int link) {
+        return KEYS[card.cardIndex() * LINKS + link];
+    }
+
+    static long key(int cardIndex, int link) {
+        return KEYS[cardIndex * LINKS + link];
+    }
+
+    /**
+     * @param positionLink a link byte of {@link SolitairePosition}
+     * @return the corresponding link of this hash, ignoring column and space numbers
+     */
+    static int fromPositionLink(int positionLink) {
+        if (positionLink < SolitairePosition.CARDS) return positionLink;
+        if (positionLink == SolitairePosition.FINISHED_LINK) return FINISHED;
+        if (positionLink >= SolitairePosition.SPACE_LINK) return SPACE;
+        return BASE;
+    }
+}
@@ -0,0 +1,259 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+/**
+ * Conversion between supermoves, which move several cards from a main column to another in one step, and the
+ * equivalent sequences of single-card moves.
+ * <p>
+ * A supermove of {@code k} cards with {@code m} free spaces and {@code n} usable empty columns is legal in
+ * strict mode if {@code k <= (m + 1) * (n + 1)}. This is exactly what can be done by parking groups of
+ * {@code m + 1} cards in the empty columns, each group moved by way of the spaces, which is the
+ * decomposition produced here.
+ */
+public final class Supermoves {
+
+    /**
+     * The longest atomic sequence {@link #merge(SolitaireGame, int[], int, int[])} tries to merge.
+     */
+    private static final int MERGE_WINDOW = 256;
+
+    private Supermoves() {
+    }
+
+    /**
+     * Expands an encoded move into single-card moves, in the current layout of {@code game}.
+     * <p>
+     * Moves other than main-to-main moves of several cards are written unchanged. Throws
+     * {@link SolitaireException} if there are not enough free spaces and empty columns to move the cards one
+     * by one, which may happen to long moves allowed in casual mode.
+     *
+     * @param game the game where {@code move} is legal, which is not changed
+     * @param move the encoded move
+     * @param out  the destination, at least {@code 4 * count} long
+     * @return number of moves written
+     */
+    public static int decompose(SolitaireGame game, int move, int[] out) {
+        int count = EncodedMove.count(move);
+        if (EncodedMove.type(move) != EncodedMove.MAIN_TO_MAIN || count == 1) {
+            out[0] = move;
+            return 1;
+        }
+        int src = EncodedMove.src(move);
+        int dst = EncodedMove.dst(move);
+
+        int[] spaces = new int[game.spaceArea.length];
+        int freeSpaces = 0;
+        for (int pos = 0; pos < game.spaceArea.length; ++pos) {
+            if (game.spaceArea[pos] == null) spaces[freeSpaces++] = pos;
+        }
+        int[] columns = new int[game.mainArea.length];
+        int emptyColumns = 0;
+        for (int col = 0; col < game.mainArea.length; ++col) {
+            if (col != dst && game.mainArea[col].isEmpty()) columns[emptyColumns++] = col;
+        }
+        int group = freeSpaces + 1;
+        if (count > group * (emptyColumns + 1)) {
+            throw new SolitaireException("Not enough spaces to move " + count + " cards one by one.");
+        }
+
+        int parked = (count - 1) / group;  // groups parked in empty columns, topmost group first
+        int n = 0;
+        for (int i = 0; i < parked; ++i) n = moveGroup(src, columns[i], group, spaces, out, n);
+        n = moveGroup(src, dst, count - parked * group, spaces, out, n);
+        for (int i = parked - 1; i >= 0; --i) n = moveGroup(columns[i], dst, group, spaces, out, n);
+        return n;
+    }
+
+    /**
+     * Moves the top {@code size} cards of a column to another by way of the spaces.
+     */
+    private static int moveGroup(int src, int dst, int size, int[] spaces, int[] out, int n) {
+        for (int i = 0; i < size - 1; ++i) {
+            out[n++] = EncodedMove.encode(EncodedMove.MAIN_TO_SPACE, src, spaces[i], 1);
+        }
+        out[n++] = EncodedMove.encode(EncodedMove.MAIN_TO_MAIN, src, dst, 1);
+        for (int i = size - 2; i >= 0; --i) {
+            out[n++] = EncodedMove.encode(EncodedMove.SPACE_TO_MAIN, spaces[i], dst, 1);
+        }
+        return n;
+    }
+
+    /**
+     * Merges single-card moves back into supermoves.
+     * <p>
+     * Only runs of single-card moves between main and space area are merged, which is what supermoves expand
+     * to. From each move of such a run, the longest following part of the run whose only effect is to move
+     * some cards from one main column to another is replaced by that main-to-main move, if it is legal under
+     * the rules of {@code game}. Other moves are kept. Such a part changes what exactly one card lies on, which
+     * is counted move by move while the part grows.
+     *
+     * @param game   the game at the start of the moves, which is not changed
+     * @param moves  legal encoded moves played one after another
+     * @param length number of moves
+     * @param out    the destination, at least {@code length} long
+     * @return number of moves written
+     */
+    public static int merge(SolitaireGame game, int[] moves, int length, int[] out) {
+        SolitaireGame work = game.getPosition().toGame(game.getRules());
+        RunScan scan = new RunScan(work.mainArea.length, work.spaceArea.length);
+        int n = 0;
+        int i = 0;
+        int runEnd = 0;  // end of the run of i
+        while (i < length) {
+            int end = i + 1;
+            int merged = 0;
+            if (isRunMove(moves[i])) {
+                if (runEnd <= i) {
+                    runEnd = i + 1;
+                    while (runEnd < length && isRunMove(moves[runEnd])) runEnd++;
+                }
+                int last = Math.min(runEnd, i + MERGE_WINDOW) - 1;
+                if (last > i) {
+                    scan.load(work);
+                    for (int j = i; j <= last; ++j) {
+                        scan.apply(moves[j]);
+                        if (scan.changed - 1 > last - j) break;  // cannot come back to one card
+                        if (j > i && scan.changed == 1) {
+                            int candidate = scan.supermove();
+                            if (candidate != 0 && work.movableEncoded(candidate)) {
+                                end = j + 1;
+                                merged = candidate;
+                            }
+                        }
+                    }
+                }
+            }
+            out[n++] = merged != 0 ? merged : moves[i];
+            for (; i < end; ++i) work.applyEncoded(moves[i]);
+        }
+        return n;
+    }
+
+    private static boolean isRunMove(int move) {
+        switch (EncodedMove.type(move)) {
+            case EncodedMove.MAIN_TO_SPACE:
+            case EncodedMove.SPACE_TO_MAIN:
+                return true;
+            case EncodedMove.MAIN_TO_MAIN:
+                return EncodedMove.count(move) == 1;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Main and space area as card indices, played forward from the start of a run without a
+     * {@link SolitaireGame}, keeping what each moved card lay on at the start.
+     * <p>
+     * Links are those of {@link SolitairePosition}: a card index, {@code BASE_LINK + column} or
+     * {@code SPACE_LINK + position}.
+     */
+    private static final class RunScan {
+        private final int[][] columns;
+        private final int[] heights;
+        private final int[] startHeights;
+        private final int[] spaces;
+        private final int[] columnOf = new int[SolitairePosition.CARDS];
+        private final int[] startLink = new int[SolitairePosition.CARDS];
+        private final int[] link = new int[SolitairePosition.CARDS];
+        private final int[] startColumn = new int[SolitairePosition.CARDS];
+        private final int[] startRow = new int[SolitairePosition.CARDS];
+        private final int[] stamps = new int[SolitairePosition.CARDS];
+        private int stamp;
+        /**
+         * Number of cards lying on something else than at the start, and the xor of their indices.
+         */
+        int changed;
+        private int changedXor;
+
+        RunScan(int columnCount, int spaceCount) {
+            columns = new int[columnCount][SolitairePosition.CARDS];
+            heights = new int[columnCount];
+            startHeights = new int[columnCount];
+            spaces = new int[spaceCount];
+        }
+
+        void load(SolitaireGame game) {
+            for (int col = 0; col < columns.length; ++col) {
+                SolitaireDeck deck = game.mainArea[col];
+                for (int row = 0; row < deck.size(); ++row) {
+                    int card = deck.get(row).cardIndex();
+                    columns[col][row] = card;
+                    columnOf[card] = col;
+                }
+                heights[col] = startHeights[col] = deck.size();
+            }
+            for (int pos = 0; pos < spaces.length; ++pos) {
+                Card card = game.spaceArea[pos];
+                spaces[pos] = card == null ? -1 : card.cardIndex();
+            }
+            stamp++;
+            changed = 0;
+            changedXor = 0;
+        }
+
+        void apply(int move) {
+            int src = EncodedMove.src(move);
+            int dst = EncodedMove.dst(move);
+            int card;
+            int oldLink;
+            int row = -1;
+            if (EncodedMove.type(move) == EncodedMove.SPACE_TO_MAIN) {
+                card = spaces[src];
+                spaces[src] = -1;
+                oldLink = SolitairePosition.SPACE_LINK + src;
+            } else {
+                row = --heights[src];
+                card = columns[src][row];
+                oldLink = row == 0 ? SolitairePosition.BASE_LINK + src : columns[src][row - 1];
+            }
+            int newLink;
+            if (EncodedMove.type(move) == EncodedMove.MAIN_TO_SPACE) {
+                spaces[dst] = card;
+                newLink = SolitairePosition.SPACE_LINK + dst;
+            } else {
+                int height = heights[dst]++;
+                newLink = height == 0 ? SolitairePosition.BASE_LINK + dst : columns[dst][height - 1];
+                columns[dst][height] = card;
+                columnOf[card] = dst;
+            }
+
+            boolean wasChanged;
+            if (stamps[card] != stamp) {  // first move of this card in the run
+                stamps[card] = stamp;
+                startLink[card] = oldLink;
+                startColumn[card] = row == -1 ? -1 : src;
+                startRow[card] = row;
+                wasChanged = false;
+            } else {
+                wasChanged = link[card] != startLink[card];
+            }
+            link[card] = newLink;
+            if (wasChanged != (newLink != startLink[card])) {
+                changed += wasChanged ? -1 : 1;
+                changedXor ^= card;
+            }
+        }
+
+        /**
+         * Precondition: {@code changed == 1}.
+         *
+         * @return the main-to-main move with the same effect as the moves so far, or {@code 0} if there is none,
+         * not checked against the rules
+         */
+        int supermove() {
+            int card = changedXor;
+            int src = startColumn[card];
+            int newLink = link[card];
+            if (src == -1 || newLink >= SolitairePosition.SPACE_LINK) return 0;
+            int dst;
+            if (newLink >= SolitairePosition.BASE_LINK) {
+                dst = newLink - SolitairePosition.BASE_LINK;
+                if (startHeights[dst] != 0) return 0;
+            } else {
+                dst = columnOf[newLink];  // all cards but one lie where they did, so it is also the start column
+            }
+            if (dst == src) return 0;
+            return EncodedMove.encode(EncodedMove.MAIN_TO_MAIN, src, dst, startHeights[src] - startRow[card]);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package trashsoftware.solitaire.core.solver;
+
+import trashsoftware.solitaire.core.solitaireGame.CanonicalPosition;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of hint moves, keyed by {@link SolitaireGame#getPositionHash()}, dropping the least recently
+ * used entry when full.
+ * <p>
+ * The position hash does not depend on the order of columns or on which spaces hold the cards, so moves are
+ * stored in the form of the {@link CanonicalPosition} and mapped back to the columns and spaces of the game
+ * that asks. A cached move is checked to be legal before it is returned.
+ * <p>
+ * Moves depend on the rules, so the cache is cleared when it is used with rules different from the previous
+ * ones in any setting, including safe auto play. It is safe to use from several threads.
+ */
+public class HintCache {
+
+    private final Map<Long, Integer> moves;
+    private SolitaireRules rules;  // of the cached moves
+
+    /**
+     * @param capacity the maximum number of positions
+     */
+    public HintCache(int capacity) {
+        this.moves = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param game the game at the position to look up
+     * @return the cached move in the current layout of {@code game}, or {@code 0} if none
+     */
+    public synchronized int get(SolitaireGame game) {
+        checkRules(game.getRules());
+        Integer canonicalMove = moves.get(game.getPositionHash());
+        if (canonicalMove == null) return 0;
+        int move = CanonicalPosition.of(game).toOriginalMove(canonicalMove);
+        return game.movableEncoded(move) ? move : 0;
+    }
+
+    /**
+     * @param game the game at the position of the hint
+     * @param move the hint move, a legal encoded move of the current layout
+     */
+    public synchronized void put(SolitaireGame game, int move) {
+        checkRules(game.getRules());
+        moves.put(game.getPositionHash(), CanonicalPosition.of(game).toCanonicalMove(move));
+    }
+
+    public synchronized void clear() {
+        moves.clear();
+    }
+
+    public synchronized int size() {
+        return moves.size();
+    }
+
+    private void checkRules(SolitaireRules rules) {
+        if (!rules.equals(this.rules)) {
+            moves.clear();
+            this.rules = rules;
+        }
+    }
+}
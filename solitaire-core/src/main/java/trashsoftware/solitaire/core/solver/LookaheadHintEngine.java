@@ -0,0 +1,223 @@
+package trashsoftware.solitaire.core.solver;
+
+import trashsoftware.solitaire.core.solitaireGame.*;
+
+/**
+ * A hint engine looking several moves ahead, which always answers within a time budget.
+ * <p>
+ * The engine searches by iterative deepening: depth 1, then 2, and so on until the deadline or the maximum
+ * depth. A line of moves is valued by the best position reached on it, so the search never has to choose a
+ * bad move at its horizon. Positions are valued by {@link SolitaireSolver#estimateRemaining(SolitaireGame)}
+ * and by the free spaces and empty columns, and a won position is better than everything else.
+ * <p>
+ * When time runs out in the middle of a depth, the best move of the last finished depth is kept, unless the
+ * unfinished depth has already found a better one. The previous best move is always searched first.
+ * <p>
+ * With safe auto play in the rules, every move is followed by the moves the game would play after it, which
+ * count as part of that move, so the depth goes to the moves the player makes.
+ * <p>
+ * An engine is not thread safe, but it may run on any thread because it only works on a copy of the layout.
+ */
+public class LookaheadHintEngine {
+
+    private static final int CHECK_INTERVAL = 256;
+    private static final int WIN = 10_000;
+    private static final int BASE = 1_000;
+    private static final int MAX_PATH = 64;
+
+    private final long timeBudgetNanos;
+    private final int maxDepth;
+    private final TranspositionTable table;
+
+    private final int[][] moveBuffers;
+    private final int[][] autoBuffers;
+    private final long[] pathHashes = new long[MAX_PATH];
+    private int generation;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private boolean autoPlay;
+
+    private LookaheadHintEngine(long timeBudgetMillis, int maxDepth, TranspositionTable table) {
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000;
+        this.maxDepth = maxDepth;
+        this.table = table;
+        this.moveBuffers = new int[maxDepth + 1][SolitaireGame.MAX_GENERATED_MOVES];
+        this.autoBuffers = new int[maxDepth + 1][SolitairePosition.CARDS];
+    }
+
+    /**
+     * Finds a hint for the current layout of {@code game}, on the calling thread.
+     * <p>
+     * Falls back to {@link SolitaireGame#getHint()} if there is no move to search.
+     *
+     * @param game the game
+     * @return the hint, or {@code null} if there is nothing to do
+     */
+    public SolitaireHint findHint(SolitaireGame game) {
+        int move = findMove(game.getPosition(), game.getRules());
+        return move == 0 ? game.getHint() : game.hintOf(move);
+    }
+
+    /**
+     * Searches the best move of {@code position} until the time budget runs out.
+     *
+     * @param position the layout
+     * @param rules    the rules
+     * @return the best encoded move found, or {@code 0} if there is no legal move
+     */
+    public int findMove(SolitairePosition position, SolitaireRules rules) {
+        deadline = System.nanoTime() + timeBudgetNanos;
+        generation = table.nextGeneration();
+        nodes = 0;
+        aborted = false;
+        autoPlay = rules.isSafeAutoPlay();
+
+        SolitaireGame game = position.toGame(rules);
+        int[] rootMoves = moveBuffers[0];
+        int count = game.generateMoves(rootMoves);
+        if (count <= 1) return count == 0 ? 0 : rootMoves[0];
+
+        pathHashes[0] = game.getPositionHash();
+        int bestMove = rootMoves[0];
+        for (int depth = 1; depth <= maxDepth; ++depth) {
+            int iterationBest = 0;
+            int iterationValue = Integer.MIN_VALUE;
+            for (int i = 0; i < count; ++i) {
+                int move = rootMoves[i];
+                int autoCount = apply(game, move, autoBuffers[0]);
+                int value = searchChild(game, depth - 1, 1);
+                undo(game, move, autoBuffers[0], autoCount);
+                if (aborted) break;
+                if (value > iterationValue) {
+                    iterationValue = value;
+                    iterationBest = move;
+                }
+            }
+            if (iterationBest != 0) bestMove = iterationBest;  // the first root move is the previous best
+            if (aborted || isWin(iterationValue)) break;
+            moveToFront(rootMoves, count, bestMove);
+        }
+        return bestMove;
+    }
+
+    /**
+     * @return the value of the position after the move, or {@code Integer.MIN_VALUE} if it repeats the line
+     */
+    private int searchChild(SolitaireGame game, int remaining, int ply) {
+        long hash = game.getPositionHash();
+        for (int i = 0; i < ply; ++i) {
+            if (pathHashes[i] == hash) return Integer.MIN_VALUE;
+        }
+        pathHashes[ply] = hash;
+        return search(game, remaining, ply);
+    }
+
+    private int search(SolitaireGame game, int remaining, int ply) {
+        if (++nodes % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+            return 0;
+        }
+        int value = evaluate(game, ply);
+        if (remaining == 0 || isWin(value)) return value;
+
+        long hash = pathHashes[ply];
+        long entry = table.probe(hash, generation);
+        if (entry != TranspositionTable.MISS && TranspositionTable.depth(entry) >= remaining) {
+            return TranspositionTable.bound(entry);
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = game.generateMoves(moves);
+        int[] autoMoves = autoBuffers[ply];
+        for (int i = 0; i < count; ++i) {
+            int autoCount = apply(game, moves[i], autoMoves);
+            int childValue = searchChild(game, remaining - 1, ply + 1);
+            undo(game, moves[i], autoMoves, autoCount);
+            if (aborted) return 0;
+            if (childValue > value) value = childValue;
+        }
+        table.store(hash, generation, remaining, value);
+        return value;
+    }
+
+    /**
+     * Applies a move and, if the rules have safe auto play, the moves that follow it in the game, so that they
+     * take no ply of the search.
+     *
+     * @return number of auto moves written to {@code autoMoves} and applied
+     */
+    private int apply(SolitaireGame game, int move, int[] autoMoves) {
+        game.applyEncoded(move);
+        if (!autoPlay) return 0;
+        int autoCount = game.generateSafeAutoMoves(autoMoves);
+        for (int i = 0; i < autoCount; ++i) game.applyEncoded(autoMoves[i]);
+        return autoCount;
+    }
+
+    private static void undo(SolitaireGame game, int move, int[] autoMoves, int autoCount) {
+        for (int i = autoCount - 1; i >= 0; --i) game.undoEncoded(autoMoves[i]);
+        game.undoEncoded(move);
+    }
+
+    /**
+     * @return the value of the position, always positive, the greater the better
+     */
+    private static int evaluate(SolitaireGame game, int ply) {
+        int remaining = SolitaireSolver.estimateRemaining(game);
+        if (remaining == 0) return WIN - ply;  // quicker wins first
+        return BASE - remaining * 8 + game.getFreeSpaceCount() * 2 + game.getEmptyColumnCount() * 5;
+    }
+
+    private static boolean isWin(int value) {
+        return value > WIN - MAX_PATH;
+    }
+
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int i = 0; i < count; ++i) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    public static class Builder {
+        private long timeBudgetMillis = 50;
+        private int maxDepth = 12;
+        private int tableMegabytes = 4;
+
+        /**
+         * @param timeBudgetMillis the time of one search in milliseconds
+         * @return this builder
+         */
+        public Builder timeBudgetMillis(long timeBudgetMillis) {
+            if (timeBudgetMillis < 1) throw new IllegalArgumentException("Time budget must be positive.");
+            this.timeBudgetMillis = timeBudgetMillis;
+            return this;
+        }
+
+        /**
+         * @param maxDepth the number of moves to look ahead when time allows
+         * @return this builder
+         */
+        public Builder maxDepth(int maxDepth) {
+            if (maxDepth < 1 || maxDepth >= MAX_PATH) {
+                throw new IllegalArgumentException("Depth must be between 1 and " + (MAX_PATH - 1) + ".");
+            }
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder tableMegabytes(int tableMegabytes) {
+            this.tableMegabytes = tableMegabytes;
+            return this;
+        }
+
+        public LookaheadHintEngine build() {
+            return new LookaheadHintEngine(timeBudgetMillis, maxDepth,
+                    new TranspositionTable(tableMegabytes, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package trashsoftware.solitaire.core.solver;
+
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitairePosition;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A solver running one {@link SolitaireSolver} search split over the workers of a {@link ForkJoinPool}.
+ * <p>
+ * The search starts as one task from the start position and runs in slices of {@code splitNodeBudget}
+ * expanded positions. After each slice, a task whose queue holds no work for idle workers hands about half of
+ * its open list to a new task and goes on with the rest. So the work is first split on the moves of the start
+ * position and then deeper where the search spends its time, and nothing expanded is ever searched again.
+ * <p>
+ * All tasks share one generation of the {@link TranspositionTable} of the solver, so a position reached by
+ * several tasks is only expanded by the one that reached it with the least moves. Each task searches its own
+ * part in best-first order, which makes the whole search only roughly best-first. The length of the best
+ * solution found is shared by all tasks as a bound, and by default all remaining work is cancelled as soon as
+ * one task finds a solution.
+ */
+public class ParallelSolitaireSolver {
+
+    private final SolitaireSolver solver;
+    private final int parallelism;
+    private final long splitNodeBudget;
+    private final boolean firstSolution;
+
+    private ParallelSolitaireSolver(SolitaireSolver solver, int parallelism,
+                                    long splitNodeBudget, boolean firstSolution) {
+        this.solver = solver;
+        this.parallelism = parallelism;
+        this.splitNodeBudget = splitNodeBudget;
+        this.firstSolution = firstSolution;
+    }
+
+    public SolitaireSolution solve(SolitaireGame game) {
+        return solve(game.getPosition(), game.getRules());
+    }
+
+    public SolitaireSolution solve(SolitairePosition start, SolitaireRules rules) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return solve(start, rules, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Solves in an existing pool, for callers that solve many games.
+     *
+     * @param start the start position
+     * @param rules the rules
+     * @param pool  the pool running the tasks
+     * @return the result
+     */
+    public SolitaireSolution solve(SolitairePosition start, SolitaireRules rules, ForkJoinPool pool) {
+        long beginTime = System.nanoTime();
+        Shared shared = new Shared(solver.deadlineFromNow());
+        pool.invoke(new SearchTask(shared, solver.newSearch(start, rules)));
+
+        long nanoTime = System.nanoTime() - beginTime;
+        synchronized (shared) {
+            if (shared.bestMoves != null) {
+                return new SolitaireSolution(SolitaireSolution.Verdict.SOLVED, shared.bestMoves,
+                        shared.nodes.get(), nanoTime);
+            }
+        }
+        return new SolitaireSolution(
+                shared.limitReached ? SolitaireSolution.Verdict.UNKNOWN : SolitaireSolution.Verdict.UNSOLVABLE,
+                null, shared.nodes.get(), nanoTime);
+    }
+
+    private class Shared implements SearchControl {
+        final long deadline;
+        final AtomicLong nodes = new AtomicLong();
+        volatile boolean stopped;
+        volatile boolean limitReached;
+        volatile int bound = Integer.MAX_VALUE;
+        int[] bestMoves;  // guarded by this
+
+        Shared(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        @Override
+        public int getBound() {
+            return bound;
+        }
+
+        synchronized void offer(int[] moves) {
+            if (moves.length < bound) {
+                bestMoves = moves;
+                bound = moves.length;
+            }
+            if (firstSolution) stopped = true;
+        }
+
+        void reachLimit() {
+            limitReached = true;
+            stopped = true;
+        }
+    }
+
+    private class SearchTask extends RecursiveAction {
+        private final Shared shared;
+        private final SolitaireSolver.Search search;
+
+        SearchTask(Shared shared, SolitaireSolver.Search search) {
+            this.shared = shared;
+            this.search = search;
+        }
+
+        @Override
+        protected void compute() {
+            List<SearchTask> forked = new ArrayList<>();
+            while (!shared.stopped) {
+                long remaining = solver.getNodeLimit() - shared.nodes.get();
+                if (remaining <= 0 || System.nanoTime() > shared.deadline ||
+                        Thread.currentThread().isInterrupted()) {
+                    shared.reachLimit();
+                    break;
+                }
+                long expandedBefore = search.getExpanded();
+                int[] moves = search.run(Math.min(splitNodeBudget, remaining), shared.deadline, shared);
+                shared.nodes.addAndGet(search.getExpanded() - expandedBefore);
+                if (moves != null) {
+                    shared.offer(moves);  // goes on for shorter ones unless stopped
+                } else if (search.isExhausted()) {
+                    break;
+                } else if (getSurplusQueuedTaskCount() <= 0) {  // other workers may be idle
+                    SolitaireSolver.Search half = search.split();
+                    if (half != null) {
+                        SearchTask task = new SearchTask(shared, half);
+                        task.fork();
+                        forked.add(task);
+                    }
+                }
+            }
+            for (SearchTask task : forked) task.join();
+        }
+    }
+
+    public static class Builder {
+        private final SolitaireSolver.Builder solverBuilder = new SolitaireSolver.Builder();
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private long splitNodeBudget = 1_000;
+        private boolean firstSolution = true;
+
+        /**
+         * @param nodeLimit the maximum number of expanded positions of all tasks together
+         * @return this builder
+         */
+        public Builder nodeLimit(long nodeLimit) {
+            solverBuilder.nodeLimit(nodeLimit);
+            return this;
+        }
+
+        public Builder timeLimitMillis(long timeLimitMillis) {
+            solverBuilder.timeLimitMillis(timeLimitMillis);
+            return this;
+        }
+
+        public Builder weight(double weight) {
+            solverBuilder.weight(weight);
+            return this;
+        }
+
+        public Builder safeAutoPlay(boolean safeAutoPlay) {
+            solverBuilder.safeAutoPlay(safeAutoPlay);
+            return this;
+        }
+
+        /**
+         * @param tableMegabytes size of the transposition table shared by all tasks
+         * @return this builder
+         */
+        public Builder tableMegabytes(int tableMegabytes) {
+            solverBuilder.tableMegabytes(tableMegabytes);
+            return this;
+        }
+
+        public Builder replacementPolicy(TranspositionTable.ReplacementPolicy replacementPolicy) {
+            solverBuilder.replacementPolicy(replacementPolicy);
+            return this;
+        }
+
+        /**
+         * @param parallelism number of worker threads, used when the solver creates its own pool
+         * @return this builder
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive.");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param splitNodeBudget number of positions a task expands between two chances to hand part of its work
+         *                        to idle workers
+         * @return this builder
+         */
+        public Builder splitNodeBudget(long splitNodeBudget) {
+            this.splitNodeBudget = splitNodeBudget;
+            return this;
+        }
+
+        /**
+         * @param firstSolution {@code true} to stop at the first solution, {@code false} to keep searching
+         *                      shorter solutions until all tasks are done or a limit is reached
+         * @return this builder
+         */
+        public Builder firstSolution(boolean firstSolution) {
+            this.firstSolution = firstSolution;
+            return this;
+        }
+
+        public ParallelSolitaireSolver build() {
+            return new ParallelSolitaireSolver(solverBuilder.build(), parallelism, splitNodeBudget, firstSolution);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package trashsoftware.solitaire.core.solver;
+
+/**
+ * State shared by searches running on different parts of one game.
+ */
+interface SearchControl {
+
+    SearchControl NONE = new SearchControl() {
+        @Override
+        public boolean isStopped() {
+            return false;
+        }
+
+        @Override
+        public int getBound() {
+            return Integer.MAX_VALUE;
+        }
+    };
+
+    /**
+     * @return whether all searches should stop as soon as possible
+     */
+    boolean isStopped();
+
+    /**
+     * @return the length of the shortest solution found so far, or {@link Integer#MAX_VALUE} if none
+     */
+    int getBound();
+}
@@ -0,0 +1,96 @@
+package trashsoftware.solitaire.core.solver;
+
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireMove;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of a solver run.
+ */
+public class SolitaireSolution {
+
+    private final Verdict verdict;
+    private final int[] moves;
+    private final long nodesExpanded;
+    private final long nanoTime;
+
+    SolitaireSolution(Verdict verdict, int[] moves, long nodesExpanded, long nanoTime) {
+        this.verdict = verdict;
+        this.moves = moves;
+        this.nodesExpanded = nodesExpanded;
+        this.nanoTime = nanoTime;
+    }
+
+    public Verdict getVerdict() {
+        return verdict;
+    }
+
+    public boolean isSolved() {
+        return verdict == Verdict.SOLVED;
+    }
+
+    /**
+     * @return the encoded moves from the start position to the end, or {@code null} if not solved
+     */
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public int length() {
+        return moves == null ? 0 : moves.length;
+    }
+
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    public long getNanoTime() {
+        return nanoTime;
+    }
+
+    /**
+     * Converts the solution into move objects of {@code game}, which must be at the start position.
+     * <p>
+     * The layout of {@code game} is used to build each move and then restored.
+     *
+     * @param game the game at the start position
+     * @return moves that can be performed by {@link SolitaireGame#move(SolitaireMove)} one by one
+     */
+    public List<SolitaireMove> toMoves(SolitaireGame game) {
+        if (moves == null) return null;
+        List<SolitaireMove> list = new ArrayList<>();
+        for (int move : moves) {
+            list.add(game.decodeMove(move));
+            game.applyEncoded(move);
+        }
+        for (int i = moves.length - 1; i >= 0; --i) game.undoEncoded(moves[i]);
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return "SolitaireSolution{" +
+                "verdict=" + verdict +
+                ", length=" + length() +
+                ", nodesExpanded=" + nodesExpanded +
+                ", millis=" + nanoTime / 1_000_000 +
+                '}';
+    }
+
+    public enum Verdict {
+        /**
+         * A solution is found.
+         */
+        SOLVED,
+        /**
+         * All positions reachable by legal moves are searched and none of them is finished.
+         */
+        UNSOLVABLE,
+        /**
+         * The node limit or the time limit was reached, or the search was cancelled.
+         */
+        UNKNOWN
+    }
+}
@@ -0,0 +1,346 @@
+package trashsoftware.solitaire.core.solver;
+
+import trashsoftware.solitaire.core.solitaireGame.*;
+import trashsoftware.solitaire.util.Heap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A best-first solver of {@link SolitaireGame}, searching positions in the order of {@code g + weight * h}.
+ * <p>
+ * {@code g} is the number of moves from the start and {@code h} is {@link #estimateRemaining(SolitaireGame)},
+ * which never overestimates. With weight 1 the search is A* and the solution has the least moves; a greater
+ * weight finds longer solutions with much fewer nodes.
+ * <p>
+ * Moves are produced by {@link SolitaireGame#generateAllMoves(int[])}, including the moves out of finished
+ * area, so the strict rule and the maximum moving length of the game rules are respected and no reachable
+ * position is left out. Positions are identified by {@link SolitaireGame#getPositionHash()}.
+ * <p>
+ * With safe auto play, which follows {@link SolitaireRules#isSafeAutoPlay()} unless set in the builder, every
+ * move is followed by the moves of {@link SolitaireGame#generateSafeAutoMoves(int[])} as one step of the
+ * search. They are never worse than any other move, so the search skips the positions where they are not done
+ * yet, and a position without solution under safe auto play has none without it either. The solution still
+ * lists them as ordinary moves.
+ * <p>
+ * Visited positions are kept in a {@link TranspositionTable} of fixed size, allocated once with the solver and
+ * reused by every search. Both the depth and the bound of an entry are the least number of moves known to
+ * reach the position, so a full table keeps the positions deepest in the search. A position dropped from a
+ * full table may be searched again, but memory use never grows with the search.
+ */
+public class SolitaireSolver {
+
+    private static final int CHECK_INTERVAL = 256;
+
+    private final long nodeLimit;
+    private final long timeLimitMillis;
+    private final double weight;
+    private final Boolean safeAutoPlay;  // null to follow the rules
+    private final TranspositionTable table;
+
+    private SolitaireSolver(long nodeLimit, long timeLimitMillis, double weight, Boolean safeAutoPlay,
+                            TranspositionTable table) {
+        this.nodeLimit = nodeLimit;
+        this.timeLimitMillis = timeLimitMillis;
+        this.weight = weight;
+        this.safeAutoPlay = safeAutoPlay;
+        this.table = table;
+    }
+
+    /**
+     * Returns a lower bound of the number of moves to finish the game.
+     * <p>
+     * Every card not finished needs its own move to finished area. In addition, every column that has a card
+     * above a lower card of the same suit needs at least one move that does not go to finished area.
+     *
+     * @param game the game
+     * @return the lower bound
+     */
+    public static int estimateRemaining(SolitaireGame game) {
+        int estimate = SolitairePosition.CARDS;
+        for (SolitaireDeck deck : game.getFinishedArea()) estimate -= deck.size();
+        int[] lowest = new int[4];
+        for (SolitaireDeck deck : game.getMainArea()) {
+            lowest[0] = lowest[1] = lowest[2] = lowest[3] = Integer.MAX_VALUE;
+            for (Card card : deck) {
+                if (card.getNum() > lowest[card.getSuit()]) {
+                    estimate++;
+                    break;
+                }
+                lowest[card.getSuit()] = card.getNum();
+            }
+        }
+        return estimate;
+    }
+
+    public SolitaireSolution solve(SolitaireGame game) {
+        return solve(game.getPosition(), game.getRules());
+    }
+
+    /**
+     * Searches a solution from {@code start}.
+     * <p>
+     * The search stops with {@link SolitaireSolution.Verdict#UNKNOWN} when the node limit or the time limit
+     * is reached, or when the running thread is interrupted.
+     *
+     * @param start the start position
+     * @param rules the rules
+     * @return the result
+     */
+    public SolitaireSolution solve(SolitairePosition start, SolitaireRules rules) {
+        long beginTime = System.nanoTime();
+        Search search = newSearch(start, rules);
+        int[] moves = search.run(nodeLimit, deadlineFromNow(), SearchControl.NONE);
+        SolitaireSolution.Verdict verdict;
+        if (moves != null) verdict = SolitaireSolution.Verdict.SOLVED;
+        else if (search.isExhausted()) verdict = SolitaireSolution.Verdict.UNSOLVABLE;
+        else verdict = SolitaireSolution.Verdict.UNKNOWN;
+        return new SolitaireSolution(verdict, moves, search.getExpanded(), System.nanoTime() - beginTime);
+    }
+
+    long deadlineFromNow() {
+        return timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1_000_000 : Long.MAX_VALUE;
+    }
+
+    long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * @param start the start position
+     * @param rules the rules
+     * @return a new search from {@code start}, in a new generation of the table
+     */
+    Search newSearch(SolitairePosition start, SolitaireRules rules) {
+        return new Search(start, rules);
+    }
+
+    /**
+     * A search that can be run in slices and whose open list can be split into several searches.
+     * <p>
+     * Searches split from one another share their generation of the table, so a position reached by several of
+     * them is only expanded by the one that reached it with the least moves. A search is used by one thread at
+     * a time.
+     */
+    class Search {
+        private final SolitaireRules rules;
+        private final boolean autoPlay;
+        private final int generation;
+        private final Heap<Node> openList;
+        private final SolitaireGame game;
+        private final int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        private final int[] autoBuffer = new int[SolitairePosition.CARDS];
+        private long expanded;
+
+        private Search(SolitairePosition start, SolitaireRules rules) {
+            this.rules = rules;
+            this.autoPlay = safeAutoPlay != null ? safeAutoPlay : rules.isSafeAutoPlay();
+            this.generation = table.nextGeneration();
+            this.openList = new Heap<>(Node::compareTo);
+            this.game = start.toGame(rules);
+            openList.insert(new Node(start, null, 0, null, 0, estimateRemaining(game), weight));
+            table.store(game.getPositionHash(), generation, 0, 0);
+        }
+
+        private Search(Search parent, List<Node> nodes) {
+            this.rules = parent.rules;
+            this.autoPlay = parent.autoPlay;
+            this.generation = parent.generation;
+            this.openList = new Heap<>(Node::compareTo, nodes);
+            this.game = nodes.get(0).position.toGame(rules);
+        }
+
+        /**
+         * Expands positions until a solution is found, the open list is empty, {@code nodeBudget} positions are
+         * expanded, {@code deadline} is passed, {@code control} is stopped or the running thread is interrupted.
+         * <p>
+         * Positions that cannot lead to a solution shorter than {@link SearchControl#getBound()} are not
+         * searched. The search can be run again to go on from where it stopped, also after a solution.
+         *
+         * @param nodeBudget the maximum number of positions to expand in this run
+         * @param deadline   the {@link System#nanoTime()} to stop
+         * @param control    shared state with other searches
+         * @return the moves of the solution from the start of the search, or {@code null} if none is found
+         */
+        int[] run(long nodeBudget, long deadline, SearchControl control) {
+            long budgetEnd = expanded + nodeBudget;
+            Node node;
+            while ((node = openList.removePeek()) != null) {
+                if (node.g + node.h >= control.getBound()) continue;  // cannot be better than known
+                if (node.h == 0) return node.path();
+                game.loadPosition(node.position);
+                long best = table.probe(game.getPositionHash(), generation);
+                if (best != TranspositionTable.MISS && TranspositionTable.bound(best) < node.g) {
+                    continue;  // reached again by a shorter path
+                }
+
+                if (expanded >= budgetEnd ||
+                        (expanded % CHECK_INTERVAL == 0 &&
+                                (System.nanoTime() > deadline || control.isStopped() ||
+                                        Thread.currentThread().isInterrupted()))) {
+                    openList.insert(node);  // expanded by the next run
+                    return null;
+                }
+                expanded++;
+
+                int count = game.generateAllMoves(buffer);
+                for (int i = 0; i < count; ++i) {
+                    int move = buffer[i];
+                    game.applyEncoded(move);
+                    int autoCount = autoPlay ? game.generateSafeAutoMoves(autoBuffer) : 0;
+                    for (int j = 0; j < autoCount; ++j) game.applyEncoded(autoBuffer[j]);
+                    int childG = node.g + 1 + autoCount;
+                    long hash = game.getPositionHash();
+                    long known = table.probe(hash, generation);
+                    if (known == TranspositionTable.MISS || TranspositionTable.bound(known) > childG) {
+                        int h = estimateRemaining(game);
+                        table.store(hash, generation, childG, childG);
+                        int[] autoMoves = autoCount == 0 ? null : Arrays.copyOf(autoBuffer, autoCount);
+                        openList.insert(new Node(game.getPosition(), node, move, autoMoves, childG, h, weight));
+                    }
+                    for (int j = autoCount - 1; j >= 0; --j) game.undoEncoded(autoBuffer[j]);
+                    game.undoEncoded(move);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Moves about half of the open list to a new search.
+         *
+         * @return the new search, or {@code null} if there are less than two positions to search
+         */
+        Search split() {
+            if (openList.size() < 2) return null;
+            return new Search(this, openList.removeHalf());
+        }
+
+        /**
+         * @return whether there is nothing left to search
+         */
+        boolean isExhausted() {
+            return openList.size() == 0;
+        }
+
+        /**
+         * @return number of positions expanded by this search, not including the searches split from it
+         */
+        long getExpanded() {
+            return expanded;
+        }
+    }
+
+    private static class Node implements Comparable<Node> {
+        final SolitairePosition position;
+        final Node parent;
+        final int move;
+        /**
+         * Moves of safe auto play after {@link #move}, or {@code null} if none.
+         */
+        final int[] autoMoves;
+        final int g;
+        final int h;
+        final double f;
+
+        Node(SolitairePosition position, Node parent, int move, int[] autoMoves, int g, int h, double weight) {
+            this.position = position;
+            this.parent = parent;
+            this.move = move;
+            this.autoMoves = autoMoves;
+            this.g = g;
+            this.h = h;
+            this.f = g + weight * h;
+        }
+
+        int[] path() {
+            int[] moves = new int[g];
+            int i = g;
+            for (Node n = this; n.parent != null; n = n.parent) {
+                if (n.autoMoves != null) {
+                    i -= n.autoMoves.length;
+                    System.arraycopy(n.autoMoves, 0, moves, i, n.autoMoves.length);
+                }
+                moves[--i] = n.move;
+            }
+            return moves;
+        }
+
+        @Override
+        public int compareTo(Node o) {
+            int cmp = Double.compare(f, o.f);
+            if (cmp != 0) return cmp;
+            return Integer.compare(h, o.h);  // prefer deeper nodes on ties
+        }
+    }
+
+    public static class Builder {
+        private long nodeLimit = 1_000_000;
+        private long timeLimitMillis = 0;
+        private double weight = 2.0;
+        private Boolean safeAutoPlay;
+        private int tableMegabytes = 64;
+        private TranspositionTable.ReplacementPolicy replacementPolicy =
+                TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE;
+
+        /**
+         * @param nodeLimit the maximum number of expanded positions
+         * @return this builder
+         */
+        public Builder nodeLimit(long nodeLimit) {
+            this.nodeLimit = nodeLimit;
+            return this;
+        }
+
+        /**
+         * @param timeLimitMillis the maximum running time in milliseconds, or {@code 0} for no limit
+         * @return this builder
+         */
+        public Builder timeLimitMillis(long timeLimitMillis) {
+            this.timeLimitMillis = timeLimitMillis;
+            return this;
+        }
+
+        /**
+         * @param weight weight of the estimate, {@code 1.0} for solutions with the least moves
+         * @return this builder
+         */
+        public Builder weight(double weight) {
+            if (weight < 1.0) throw new IllegalArgumentException("Weight must not be less than 1.");
+            this.weight = weight;
+            return this;
+        }
+
+        /**
+         * @param safeAutoPlay whether to finish the cards that are never needed again after every move, instead
+         *                     of following the rules of each game
+         * @return this builder
+         */
+        public Builder safeAutoPlay(boolean safeAutoPlay) {
+            this.safeAutoPlay = safeAutoPlay;
+            return this;
+        }
+
+        /**
+         * @param tableMegabytes size of the transposition table, rounded down to a power of two
+         * @return this builder
+         */
+        public Builder tableMegabytes(int tableMegabytes) {
+            this.tableMegabytes = tableMegabytes;
+            return this;
+        }
+
+        /**
+         * @param replacementPolicy what the transposition table does when it is full
+         * @return this builder
+         */
+        public Builder replacementPolicy(TranspositionTable.ReplacementPolicy replacementPolicy) {
+            this.replacementPolicy = replacementPolicy;
+            return this;
+        }
+
+        public SolitaireSolver build() {
+            return new SolitaireSolver(nodeLimit, timeLimitMillis, weight, safeAutoPlay,
+                    new TranspositionTable(tableMegabytes, replacementPolicy));
+        }
+    }
+}
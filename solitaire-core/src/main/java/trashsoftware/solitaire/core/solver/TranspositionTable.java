@@ -0,0 +1,197 @@
+package trashsoftware.solitaire.core.solver;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed-size hash table of searched positions, stored outside the Java heap.
+ * <p>
+ * Positions are keyed by their 64-bit hash. Each entry keeps a {@code depth}, the number of moves from the
+ * start of the search to the position, which tells how valuable the entry is when the table is full, and a
+ * {@code bound}, whose meaning is up to the search. Entries live in buckets of 4, one cache line each; a
+ * position can only be stored in the bucket selected by its hash, so entries are dropped or replaced according
+ * to the {@link ReplacementPolicy} when the bucket is full.
+ * <p>
+ * Every search takes its own generation by {@link #nextGeneration()}, and searches working together on one
+ * game share a generation. Entries written in other generations are invisible to a search, so the table never
+ * has to be cleared between searches. They are not treated as empty either, but age out: when a bucket is
+ * full, entries of older generations are replaced first, and under {@link ReplacementPolicy#DEPTH_PREFERRED}
+ * an entry counts as 16 moves less deep for every generation it is older than the new one.
+ * <p>
+ * The table can be shared by concurrent searches without locking. An entry is written as two longs, the data
+ * and the data xor the key, so an entry torn by a concurrent write fails the key check and reads as a miss.
+ */
+public final class TranspositionTable {
+
+    /**
+     * Returned by {@link #probe(long, int)} if the position is not in the table.
+     */
+    public static final long MISS = 0L;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final int MAX_MEGABYTES = 1024;
+    private static final int MAX_VALUE = 0xffff;
+    private static final int AGE_WEIGHT = 16;
+    /**
+     * The entry of each bucket that takes the new entries not deep enough for the others.
+     */
+    private static final int NEWEST_ENTRY = BUCKET_ENTRIES - 1;
+
+    private final ByteBuffer buffer;
+    private final long bucketMask;
+    private final ReplacementPolicy policy;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * @param megabytes size of the table, rounded down to a power of two, at most 1024
+     * @param policy    what to do when a bucket is full
+     */
+    public TranspositionTable(int megabytes, ReplacementPolicy policy) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Table size must be between 1 and " + MAX_MEGABYTES + " MB.");
+        }
+        int bytes = Integer.highestOneBit(megabytes) << 20;
+        this.buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        this.bucketMask = bytes / BUCKET_BYTES - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * @param entry a non-{@link #MISS} result of {@link #probe(long, int)}
+     * @return the stored depth
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> 16) & MAX_VALUE;
+    }
+
+    /**
+     * @param entry a non-{@link #MISS} result of {@link #probe(long, int)}
+     * @return the stored bound
+     */
+    public static int bound(long entry) {
+        return (int) entry & MAX_VALUE;
+    }
+
+    private static long pack(int generation, int depth, int bound) {
+        return ((long) generation << 32) |
+                ((long) Math.min(depth, MAX_VALUE) << 16) |
+                Math.min(bound, MAX_VALUE);
+    }
+
+    private static int generationOf(long data) {
+        return (int) (data >>> 32);
+    }
+
+    /**
+     * Returns a generation not used by any previous search of this table.
+     *
+     * @return the new generation
+     */
+    public int nextGeneration() {
+        int gen = generation.incrementAndGet();
+        if (gen == 0) gen = generation.incrementAndGet();  // 0 marks empty entries
+        return gen;
+    }
+
+    /**
+     * @param key        hash of the position
+     * @param generation generation of the searching
+     * @return the entry of the position written in this generation, or {@link #MISS}
+     */
+    public long probe(long key, int generation) {
+        int base = bucketOffset(key);
+        for (int i = 0; i < BUCKET_ENTRIES; ++i) {
+            int offset = base + i * ENTRY_BYTES;
+            long data = buffer.getLong(offset + 8);
+            if ((buffer.getLong(offset) ^ data) == key && generationOf(data) == generation) return data;
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores or updates the entry of a position.
+     * <p>
+     * Depths and bounds greater than 65535 are stored as 65535.
+     *
+     * @param key        hash of the position
+     * @param generation generation of the searching
+     * @param depth      number of moves from the start of the search to the position
+     * @param bound      the bound
+     */
+    public void store(long key, int generation, int depth, int bound) {
+        int base = bucketOffset(key);
+        int victim = -1;
+        int victimValue = Integer.MAX_VALUE;
+        int oldest = -1;
+        int oldestAge = 0;
+        for (int i = 0; i < BUCKET_ENTRIES; ++i) {
+            int offset = base + i * ENTRY_BYTES;
+            long data = buffer.getLong(offset + 8);
+            int entryGeneration = generationOf(data);
+            if (entryGeneration == 0) {  // empty
+                victim = offset;
+                victimValue = Integer.MIN_VALUE;
+                continue;
+            }
+            if (entryGeneration == generation && (buffer.getLong(offset) ^ data) == key) {
+                victim = offset;
+                victimValue = Integer.MIN_VALUE;
+                break;
+            }
+            int age = Math.max(0, generation - entryGeneration);
+            if (age > oldestAge) {
+                oldest = offset;
+                oldestAge = age;
+            }
+            int value = depth(data) - AGE_WEIGHT * age;
+            if (i != NEWEST_ENTRY && value < victimValue) {
+                victim = offset;
+                victimValue = value;
+            }
+        }
+        if (victimValue != Integer.MIN_VALUE) {  // the bucket is full
+            if (policy == ReplacementPolicy.ALWAYS_REPLACE) {
+                victim = oldest != -1 ? oldest : base + (int) (key >>> 62) * ENTRY_BYTES;
+            } else if (victimValue > depth) {
+                victim = base + NEWEST_ENTRY * ENTRY_BYTES;
+            }
+        }
+        long data = pack(generation, depth, bound);
+        buffer.putLong(victim, data ^ key);
+        buffer.putLong(victim + 8, data);
+    }
+
+    /**
+     * @return the number of entries the table can hold
+     */
+    public long capacity() {
+        return (bucketMask + 1) * BUCKET_ENTRIES;
+    }
+
+    /**
+     * @return size of the table in bytes
+     */
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    private int bucketOffset(long key) {
+        return (int) (key & bucketMask) * BUCKET_BYTES;
+    }
+
+    public enum ReplacementPolicy {
+        /**
+         * A full bucket keeps its three deepest entries after aging. A new entry replaces the least deep of
+         * them if it is at least as deep, and otherwise replaces the fourth entry, which holds the newest.
+         */
+        DEPTH_PREFERRED,
+        /**
+         * A full bucket always takes the new entry, replacing the entry of the oldest generation, or one chosen
+         * by the key if all are of the current generation.
+         */
+        ALWAYS_REPLACE
+    }
+}
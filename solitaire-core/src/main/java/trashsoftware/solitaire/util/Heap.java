@@ -64,6 +64,24 @@ public class Heap<T> {
         return element;
     }
 
+    /**
+     * Removes about half of the elements, taken evenly from all levels of the heap, so the removed elements
+     * are about as good as the kept ones. The peek is kept.
+     *
+     * @return the removed elements, in no particular order
+     */
+    public List<T> removeHalf() {
+        List<T> kept = new ArrayList<>(heapList.size() / 2 + 1);
+        List<T> removed = new ArrayList<>(heapList.size() / 2);
+        for (int i = 0; i < heapList.size(); ++i) {
+            (i % 2 == 0 ? kept : removed).add(heapList.get(i));
+        }
+        heapList.clear();
+        heapList.addAll(kept);
+        buildHeap();
+        return removed;
+    }
+
     public void printHeap() {
         int index = 0;
         int size = size();
@@ -0,0 +1,356 @@
+package trashsoftware.solitaire.util;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.text.DecimalFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Game results of all levels and their rankings.
+ * <p>
+ * Results are kept in two kinds of files. The records file is a snapshot of all results up to some point, and
+ * each new result is appended as one line to a log file named {@code <records file>.<epoch>.log}. The
+ * snapshot stores the first epoch not included in it. Once a log holds {@link #COMPACT_THRESHOLD} results,
+ * later results go to a log of the next epoch and a new snapshot is written on a background thread, after
+ * which the older logs are deleted. So recording a result never rewrites all results.
+ */
+public class SolitaireRecorder {
+
+    public static final String RECORD_FILE_NAME = "records.json";
+    public static final DecimalFormat DECIMAL_FORMAT = (DecimalFormat) DecimalFormat.getNumberInstance();
+    public static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd,HH-mm-ss");
+    /**
+     * The records file, {@link #RECORD_FILE_NAME} unless the system property {@code solitaire.recordFile}
+     * is set, which lets benchmarks and tools run without touching the player's records.
+     */
+    private static final String RECORD_FILE = System.getProperty("solitaire.recordFile", RECORD_FILE_NAME);
+    private static final String EPOCH_KEY = "logEpoch";
+    private static final String LOG_SUFFIX = ".log";
+    /**
+     * Number of results in a log that starts a compaction.
+     */
+    static final int COMPACT_THRESHOLD = 1000;
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SolitaireRecorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static int logEpoch;
+    private static int logSize;
+    private static boolean compacting;
+    private static Record record = loadRecord();
+
+    /**
+     * Records a game result and returns its ranking and the previous best records.
+     *
+     * @param solitaireRecord the result to be recorded
+     * @return the ranking of this and previous bests
+     */
+    public static synchronized SolitaireRankResult put(SolitaireRecord solitaireRecord) {
+        SolitaireRankResult scoreTimeSteps = record.put(solitaireRecord);
+        appendLog(solitaireRecord);
+        if (logSize >= COMPACT_THRESHOLD && !compacting) compact();
+        return scoreTimeSteps;
+    }
+
+    /**
+     * Returns the ranking a game result would have and the current best records, without recording it.
+     *
+     * @param solitaireRecord the result to be ranked
+     * @return the ranking of this and current bests
+     */
+    public static synchronized SolitaireRankResult rank(SolitaireRecord solitaireRecord) {
+        return record.rank(solitaireRecord);
+    }
+
+    /**
+     * Waits for the running compaction, then reads all results again from the files, as the next start of the
+     * program would. Used by tests.
+     */
+    static void reload() throws InterruptedException, ExecutionException {
+        compactor.submit(() -> {
+        }).get();  // runs after the compaction already queued
+        synchronized (SolitaireRecorder.class) {
+            record = loadRecord();
+        }
+    }
+
+    /**
+     * @return the results of each level, in no particular order
+     */
+    static synchronized Map<Integer, List<SolitaireRecord>> copyRecords() {
+        return record.copy();
+    }
+
+        static Path logFile(int epoch) {
+        return Path.of(RECORD_FILE + "." + epoch + LOG_SUFFIX);
+    }
+
+    private static void appendLog(SolitaireRecord solitaireRecord) {
+        String line = toJson(solitaireRecord, DATE_FORMAT).toString() + System.lineSeparator();
+        try {
+            Files.writeString(logFile(logEpoch), line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            logSize++;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Moves on to a new log and writes the snapshot of all results so far in background.
+     */
+    private static void compact() {
+        Map<Integer, List<SolitaireRecord>> copy = record.copy();
+        int snapshotEpoch = ++logEpoch;
+        logSize = 0;
+        compacting = true;
+        compactor.execute(() -> {
+            try {
+                saveSnapshot(copy, snapshotEpoch);
+                deleteLogsBefore(snapshotEpoch);
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                synchronized (SolitaireRecorder.class) {
+                    compacting = false;
+                }
+            }
+        });
+    }
+
+    private static void saveSnapshot(Map<Integer, List<SolitaireRecord>> levels, int epoch) throws IOException {
+        SimpleDateFormat dateFormat = (SimpleDateFormat) DATE_FORMAT.clone();  // DATE_FORMAT is not thread safe
+        JSONObject object = new JSONObject();
+        for (Map.Entry<Integer, List<SolitaireRecord>> entry : levels.entrySet()) {
+            JSONArray array = new JSONArray();
+            for (SolitaireRecord recordItem : entry.getValue()) array.put(toJson(recordItem, dateFormat));
+            object.put(String.valueOf(entry.getKey()), array);
+        }
+        object.put(EPOCH_KEY, epoch);
+
+        Path target = Path.of(RECORD_FILE).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            object.write(writer);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteLogsBefore(int epoch) throws IOException {
+        for (Map.Entry<Integer, Path> log : listLogs().entrySet()) {
+            if (log.getKey() < epoch) Files.deleteIfExists(log.getValue());
+        }
+    }
+
+    /**
+     * @return all log files by epoch
+     */
+    private static SortedMap<Integer, Path> listLogs() throws IOException {
+        Path target = Path.of(RECORD_FILE).toAbsolutePath();
+        String prefix = target.getFileName() + ".";
+        SortedMap<Integer, Path> logs = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(target.getParent(), prefix + "*" + LOG_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    logs.put(Integer.parseInt(name.substring(prefix.length(), name.length() - LOG_SUFFIX.length())),
+                            path);
+                } catch (NumberFormatException e) {
+                    // not a log of ours
+                }
+            }
+        }
+        return logs;
+    }
+
+    private static Record loadRecord() {
+        Map<Integer, List<SolitaireRecord>> levels = new TreeMap<>();
+        int snapshotEpoch = 0;
+        try (Reader reader = Files.newBufferedReader(Path.of(RECORD_FILE), StandardCharsets.UTF_8)) {
+            JSONObject jsonObject = new JSONObject(new JSONTokener(reader));
+            snapshotEpoch = jsonObject.optInt(EPOCH_KEY, 0);
+            for (String key : jsonObject.keySet()) {
+                if (key.equals(EPOCH_KEY)) continue;
+                try {
+                    int level = Integer.parseInt(key);
+                    List<SolitaireRecord> list = levels.computeIfAbsent(level, k -> new ArrayList<>());
+                    for (Object object : jsonObject.getJSONArray(key)) {
+                        if (object instanceof JSONObject) addFromJson(list, (JSONObject) object);
+                    }
+                } catch (JSONException | NumberFormatException e) {
+                    e.printStackTrace();
+                }
+            }
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            // no records yet
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        logEpoch = snapshotEpoch;
+        try {
+            for (Map.Entry<Integer, Path> log : listLogs().entrySet()) {
+                if (log.getKey() < snapshotEpoch) {
+                    Files.deleteIfExists(log.getValue());  // left by a compaction that did not finish deleting
+                    continue;
+                }
+                logEpoch = log.getKey();
+                logSize = 0;
+                for (String line : Files.readAllLines(log.getValue(), StandardCharsets.UTF_8)) {
+                    if (line.isBlank()) continue;
+                    try {
+                        JSONObject jsonObject = new JSONObject(line);
+                        addFromJson(levels.computeIfAbsent(jsonObject.getInt("initFinishes"),
+                                k -> new ArrayList<>()), jsonObject);
+                        logSize++;
+                    } catch (JSONException e) {
+                        e.printStackTrace();  // probably a line cut by a crash
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new Record(levels);
+    }
+
+    private static void addFromJson(List<SolitaireRecord> list, JSONObject jsonObject) {
+        try {
+            int score = jsonObject.getInt("score");
+            int seconds = jsonObject.getInt("seconds");
+            int steps = jsonObject.getInt("steps");
+            String dateStr = jsonObject.getString("date");
+            int initFin = jsonObject.getInt("initFinishes");
+            list.add(new SolitaireRecord(initFin, seconds, score, steps, DATE_FORMAT.parse(dateStr)));
+        } catch (JSONException | ParseException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static JSONObject toJson(SolitaireRecord recordItem, SimpleDateFormat dateFormat) {
+        JSONObject recordObj = new JSONObject();
+        recordObj.put("score", recordItem.score);
+        recordObj.put("seconds", recordItem.seconds);
+        recordObj.put("steps", recordItem.steps);
+        recordObj.put("initFinishes", recordItem.initFinish);
+        recordObj.put("date", dateFormat.format(recordItem.date));
+        return recordObj;
+    }
+
+    private static class Record {
+        private final Map<Integer, LevelRecord> levelMap = new TreeMap<>();
+
+        Record(Map<Integer, List<SolitaireRecord>> levels) {
+            for (Map.Entry<Integer, List<SolitaireRecord>> entry : levels.entrySet()) {
+                levelMap.put(entry.getKey(), new LevelRecord(entry.getValue()));
+            }
+        }
+
+        /**
+         * @return the results of each level, not backed by this record
+         */
+        Map<Integer, List<SolitaireRecord>> copy() {
+            Map<Integer, List<SolitaireRecord>> levels = new TreeMap<>();
+            for (Map.Entry<Integer, LevelRecord> entry : levelMap.entrySet()) {
+                List<SolitaireRecord> list = new ArrayList<>();
+                for (SolitaireRecord recordItem : entry.getValue().scoreList) list.add(recordItem);  // pick one
+                levels.put(entry.getKey(), list);
+            }
+            return levels;
+        }
+
+        SolitaireRankResult put(SolitaireRecord solitaireRecord) {
+            LevelRecord levelRecord = levelMap.get(solitaireRecord.initFinish);
+            if (levelRecord == null) {
+                levelMap.put(solitaireRecord.initFinish, new LevelRecord(solitaireRecord));
+                return new SolitaireRankResult(
+                        0, null,
+                        0, null,
+                        0, null
+                );  // all 0
+            }
+            return levelRecord.insert(solitaireRecord);
+        }
+
+        SolitaireRankResult rank(SolitaireRecord solitaireRecord) {
+            LevelRecord levelRecord = levelMap.get(solitaireRecord.initFinish);
+            if (levelRecord == null) {
+                return new SolitaireRankResult(
+                        0, null,
+                        0, null,
+                        0, null
+                );  // all 0
+            }
+            return levelRecord.rank(solitaireRecord);
+        }
+    }
+
+    private static class LevelRecord {
+        private final SortedList<SolitaireRecord> scoreList;
+        private final SortedList<SolitaireRecord> timeList;
+        private final SortedList<SolitaireRecord> stepList;
+
+        LevelRecord(SolitaireRecord onlyRecord) {
+            this(List.of(onlyRecord));
+        }
+
+        LevelRecord(List<SolitaireRecord> list) {
+            timeList = new SortedList<>(Comparator.comparingInt(o -> o.seconds), list);
+            stepList = new SortedList<>(Comparator.comparingInt(o -> o.steps), list);
+            scoreList = new SortedList<>((o1, o2) -> -Integer.compare(o1.score, o2.score), list);
+        }
+
+        /**
+         * Returns [scoreRank, timeRank, stepsRank]
+         */
+        SolitaireRankResult insert(SolitaireRecord recordItem) {
+            SolitaireRecord scoreBest = scoreList.getFirst();
+            SolitaireRecord timeBest = timeList.getFirst();
+            SolitaireRecord stepBest = stepList.getFirst();
+            return new SolitaireRankResult(
+                    scoreList.insert(recordItem),
+                    scoreBest,
+                    timeList.insert(recordItem),
+                    timeBest,
+                    stepList.insert(recordItem),
+                    stepBest
+            );
+        }
+
+        /**
+         * Returns the ranks {@link #insert(SolitaireRecord)} would return, without inserting.
+         */
+        SolitaireRankResult rank(SolitaireRecord recordItem) {
+            return new SolitaireRankResult(
+                    rankIn(scoreList, recordItem),
+                    scoreList.getFirst(),
+                    rankIn(timeList, recordItem),
+                    timeList.getFirst(),
+                    rankIn(stepList, recordItem),
+                    stepList.getFirst()
+            );
+        }
+
+        private static int rankIn(SortedList<SolitaireRecord> list, SolitaireRecord recordItem) {
+            int rank = list.rank(recordItem);
+            return rank == -1 ? list.size() : rank;  // after all
+        }
+    }
+}
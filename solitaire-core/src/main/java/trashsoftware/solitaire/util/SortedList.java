@@ -4,7 +4,7 @@ import java.util.*;
 
 public class SortedList<T> implements Iterable<T> {
 
-    private final LinkedList<T> list;
+    private final ArrayList<T> list;
     private final Comparator<T> comparator;
 
     public SortedList(Comparator<T> comparator) {
@@ -13,7 +13,7 @@ public class SortedList<T> implements Iterable<T> {
 
     public SortedList(Comparator<T> comparator, List<T> initialElements) {
         this.comparator = comparator;
-        this.list = new LinkedList<>(initialElements);
+        this.list = new ArrayList<>(initialElements);
         list.sort(comparator);
     }
 
@@ -27,7 +27,7 @@ public class SortedList<T> implements Iterable<T> {
     }
 
     public T getFirst() {
-        return list.isEmpty() ? null : list.getFirst();
+        return list.isEmpty() ? null : list.get(0);
     }
 
     /**
@@ -37,30 +37,28 @@ public class SortedList<T> implements Iterable<T> {
      * @return the index of the newly inserted element in this list
      */
     public int insert(T element) {
-        int index = 0;
-        ListIterator<T> iterator = list.listIterator();
-        while (iterator.hasNext()) {
-            T next = iterator.next();
-            if (comparator.compare(element, next) < 0) {
-                iterator.previous();
-                iterator.add(element);
-                return index;
-            }
-            index++;
-        }
-        list.addLast(element);
-        return size() - 1;
+        int index = firstGreater(element);
+        list.add(index, element);
+        return index;
     }
 
     public int rank(T element) {
-        int index = 0;
-        for (T next : list) {
-            if (comparator.compare(element, next) < 0) {
-                return index;
-            }
-            index++;
+        int index = firstGreater(element);
+        return index == list.size() ? -1 : index;
+    }
+
+    /**
+     * @return index of the first element greater than {@code element}, or the size if there is none
+     */
+    private int firstGreater(T element) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(element, list.get(mid)) < 0) high = mid;
+            else low = mid + 1;
         }
-        return -1;
+        return low;
     }
 
     public int size() {
@@ -0,0 +1,125 @@
+package trashsoftware.solitaire.core.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GameJournalTest {
+
+    /**
+     * Games written by one journal and appended by another are read back with their start, rules and events,
+     * and performing the events gives the layout the game ended with.
+     */
+    @Test
+    void writtenGamesReadBack(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("games.journal");
+        SolitaireRules strict = new SolitaireRules.Builder().strict(true).safeAutoPlay(true).build();
+        SolitaireRules casual = new SolitaireRules.Builder().initialFinishes(2).build();
+
+        List<SolitaireGame> games = new ArrayList<>();
+        List<int[]> events = new ArrayList<>();
+        GameJournal journal = new GameJournal(file);
+        for (long deal = 0; deal < 4; ++deal) {
+            SolitaireGame game = new SolitaireGame(deal % 2 == 0 ? strict : casual, deal);
+            events.add(play(game, journal, new Random(deal)));
+            games.add(game);
+        }
+        journal.close();
+
+        journal = new GameJournal(file);
+        SolitaireGame fromPosition = gameFromPosition(strict);
+        events.add(play(fromPosition, journal, new Random(23)));
+        games.add(fromPosition);
+        journal.close();
+
+        List<JournalGame> read = JournalReader.readAll(file);
+        assertEquals(games.size(), read.size());
+        for (int i = 0; i < games.size(); ++i) {
+            SolitaireGame game = games.get(i);
+            JournalGame journalGame = read.get(i);
+            assertEquals(game.getDealNumber(), journalGame.getDealNumber());
+            assertEquals(game.getRules().isStrict(), journalGame.getRules().isStrict());
+            assertEquals(game.getRules().isSafeAutoPlay(), journalGame.getRules().isSafeAutoPlay());
+            assertEquals(game.getRules().getInitialFinishes(), journalGame.getRules().getInitialFinishes());
+
+            int[] readEvents = new int[journalGame.getEventCount()];
+            for (int e = 0; e < readEvents.length; ++e) readEvents[e] = journalGame.getEvent(e);
+            assertArrayEquals(events.get(i), readEvents, "game " + i);
+
+            SolitaireGame replayed = journalGame.newGame();
+            for (int event : readEvents) JournalGame.perform(replayed, event);
+            assertEquals(game.getPosition(), replayed.getPosition(), "game " + i);
+        }
+        assertNull(read.get(read.size() - 1).getDealNumber());
+    }
+
+    /**
+     * A file that is not a journal of this version is left as it is.
+     */
+    @Test
+    void otherFileIsNotAppended(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("other.journal");
+        byte[] content = {'S', 'O', 'L', 'J', (byte) (JournalFormat.VERSION + 1), 0};
+        Files.write(file, content);
+
+        GameJournal journal = new GameJournal(file);
+        play(new SolitaireGame(new SolitaireRules.Builder().build(), 1), journal, new Random(1));
+        journal.close();
+
+        assertArrayEquals(content, Files.readAllBytes(file));
+        assertThrows(IOException.class, () -> new JournalReader(file));
+    }
+
+    /**
+     * @return a game started from a layout, without deal number
+     */
+    private static SolitaireGame gameFromPosition(SolitaireRules rules) {
+        SolitaireGame game = new SolitaireGame(rules, 99);
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        for (int i = 0; i < 5 && game.generateMoves(buffer) > 0; ++i) game.applyEncoded(buffer[0]);
+        return game.getPosition().toGame(rules);
+    }
+
+    /**
+     * Plays random moves, undos and a restart while recording, then appends the game to the journal.
+     *
+     * @return the events recorded
+     */
+    private static int[] play(SolitaireGame game, GameJournal journal, Random random) {
+        JournalRecording recording = new JournalRecording(game);
+        game.setHistoryListener(recording);
+        List<Integer> events = new ArrayList<>();
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        for (int step = 0; step < 120; ++step) {
+            int count = game.generateMoves(buffer);
+            if (step == 60) {
+                game.restartGame();
+                events.add(JournalGame.RESTART);
+            } else if (count == 0 || (random.nextInt(5) == 0 && game.hasMoveToUndo())) {
+                if (!game.hasMoveToUndo()) break;
+                game.undo();
+                events.add(JournalGame.UNDO);
+            } else {
+                int move = buffer[random.nextInt(count)];
+                game.move(game.decodeMove(move));
+                events.add(move);
+            }
+        }
+        journal.append(recording);
+        assertEquals(events.size(), recording.getEventCount());
+        return events.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,97 @@
+package trashsoftware.solitaire.core.journal;
+
+import org.junit.jupiter.api.Test;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitairePosition;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameReplayTest {
+
+    /**
+     * Seeking in any order gives the layout reached by performing the events one by one from the start.
+     */
+    @Test
+    void seekMatchesLinearReplay() {
+        SolitaireRules[] rulesList = {
+                new SolitaireRules.Builder().build(),
+                new SolitaireRules.Builder().strict(true).safeAutoPlay(true).build()
+        };
+        for (SolitaireRules rules : rulesList) {
+            for (long deal = 0; deal < 10; ++deal) {
+                SolitaireGame game = new SolitaireGame(rules, deal);
+                SolitairePosition start = game.getPosition();
+                int[] events = randomEvents(game, new Random(deal), 300);
+
+                SolitairePosition[] expected = new SolitairePosition[events.length + 1];
+                SolitaireGame linear = start.toGame(rules);
+                expected[0] = linear.getPosition();
+                for (int i = 0; i < events.length; ++i) {
+                    JournalGame.perform(linear, events[i]);
+                    expected[i + 1] = linear.getPosition();
+                }
+
+                for (int interval : new int[]{1, 7, GameReplay.DEFAULT_CHECKPOINT_INTERVAL}) {
+                    GameReplay replay = new GameReplay(start, rules, events, interval);
+                    assertEquals(events.length, replay.length());
+                    Random order = new Random(deal * 31 + interval);
+                    for (int k = 0; k < 200; ++k) {
+                        int target = order.nextInt(events.length + 1);
+                        assertEquals(expected[target], replay.positionAt(target),
+                                "deal " + deal + ", interval " + interval + ", event " + target);
+                        assertEquals(target, replay.getIndex());
+                    }
+                    for (int target = events.length; target >= 0; --target) {
+                        assertEquals(expected[target], replay.positionAt(target));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void fewerCheckpointsWithLongerInterval() {
+        SolitaireRules rules = new SolitaireRules.Builder().build();
+        SolitaireGame game = new SolitaireGame(rules, 24);
+        SolitairePosition start = game.getPosition();
+        int[] events = randomEvents(game, new Random(24), 500);
+        GameReplay dense = new GameReplay(start, rules, events, 4);
+        GameReplay sparse = new GameReplay(start, rules, events, 64);
+        assertTrue(sparse.getCheckpointCount() < dense.getCheckpointCount());
+        assertThrows(IndexOutOfBoundsException.class, () -> sparse.seek(events.length + 1));
+        assertThrows(IllegalArgumentException.class, () -> new GameReplay(start, rules, events, 0));
+    }
+
+    /**
+     * @return events of random moves, undos and restarts played on {@code game}
+     */
+    private static int[] randomEvents(SolitaireGame game, Random random, int length) {
+        int[] events = new int[length];
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        int n = 0;
+        while (n < length) {
+            int count = game.generateMoves(buffer);
+            int choice = random.nextInt(20);
+            if (choice == 0) {
+                game.restartGame();
+                events[n++] = JournalGame.RESTART;
+            } else if (game.hasMoveToUndo() && (count == 0 || choice < 5)) {
+                game.undo();
+                events[n++] = JournalGame.UNDO;
+            } else if (count > 0) {
+                int move = buffer[random.nextInt(count)];
+                game.move(game.decodeMove(move));
+                events[n++] = move;
+            } else {
+                break;
+            }
+        }
+        return Arrays.copyOf(events, n);
+    }
+}
@@ -0,0 +1,104 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CanonicalPositionTest {
+
+    private static final SolitaireRules RULES = new SolitaireRules.Builder().build();
+    private static final int WALKS = 40;
+    private static final int STEPS = 150;
+
+    /**
+     * Layouts that only differ in the order of columns and spaces have the same canonical position, and the same
+     * hash.
+     */
+    @Test
+    void columnAndSpaceOrderGiveSameCanonicalPosition() {
+        Random random = new Random(7);
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        for (long deal = 0; deal < WALKS; ++deal) {
+            SolitaireGame game = new SolitaireGame(RULES, deal);
+            for (int step = 0; step < STEPS; ++step) {
+                int count = game.generateMoves(buffer);
+                if (count == 0) break;
+                game.applyEncoded(buffer[random.nextInt(count)]);
+
+                SolitairePosition position = game.getPosition();
+                SolitairePosition permuted = permute(position, random);
+                assertEquals(CanonicalPosition.of(position).getPosition(),
+                        CanonicalPosition.of(permuted).getPosition(), "deal " + deal + ", step " + step);
+                assertEquals(position.positionHash(), permuted.positionHash());
+            }
+        }
+        assertNotEquals(CanonicalPosition.of(SolitaireDeal.positionOf(1, 0)),
+                CanonicalPosition.of(SolitaireDeal.positionOf(2, 0)));
+    }
+
+    /**
+     * Every generated move maps to the canonical position and back unchanged, and has the same effect there.
+     */
+    @Test
+    void movesMapToCanonicalAndBack() {
+        Random random = new Random(70);
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        for (long deal = 0; deal < WALKS; ++deal) {
+            SolitaireGame game = new SolitaireGame(RULES, deal);
+            for (int step = 0; step < STEPS; ++step) {
+                int count = game.generateAllMoves(buffer);
+                if (count == 0) break;
+                CanonicalPosition canonical = CanonicalPosition.of(game);
+                SolitaireGame canonicalGame = canonical.getPosition().toGame(RULES);
+                for (int i = 0; i < count; ++i) {
+                    int move = buffer[i];
+                    int canonicalMove = canonical.toCanonicalMove(move);
+                    assertEquals(move, canonical.toOriginalMove(canonicalMove), EncodedMove.toString(move));
+
+                    assertTrue(canonicalGame.movableEncoded(canonicalMove), EncodedMove.toString(canonicalMove));
+                    game.applyEncoded(move);
+                    canonicalGame.applyEncoded(canonicalMove);
+                    assertEquals(CanonicalPosition.of(game), CanonicalPosition.of(canonicalGame));
+                    canonicalGame.undoEncoded(canonicalMove);
+                    game.undoEncoded(move);
+                }
+                game.applyEncoded(buffer[random.nextInt(count)]);
+            }
+        }
+    }
+
+    /**
+     * @return the layout with its main columns and its spaces in random orders
+     */
+    private static SolitairePosition permute(SolitairePosition position, Random random) {
+        int[] columns = shuffled(8, random);
+        int[] spaces = shuffled(4, random);
+        long[] words = new long[SolitairePosition.LONGS];
+        for (int card = 0; card < SolitairePosition.CARDS; ++card) {
+            int link = position.getLink(card);
+            if (link >= SolitairePosition.SPACE_LINK && link < SolitairePosition.SPACE_LINK + spaces.length) {
+                link = SolitairePosition.SPACE_LINK + spaces[link - SolitairePosition.SPACE_LINK];
+            } else if (link >= SolitairePosition.BASE_LINK && link < SolitairePosition.BASE_LINK + columns.length) {
+                link = SolitairePosition.BASE_LINK + columns[link - SolitairePosition.BASE_LINK];
+            }
+            SolitairePosition.putLink(words, 0, card, link);
+        }
+        return new SolitairePosition(words, 0);
+    }
+
+    private static int[] shuffled(int length, Random random) {
+        int[] order = new int[length];
+        for (int i = 0; i < length; ++i) order[i] = i;
+        for (int i = length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,82 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SolitaireDealTest {
+
+    @Test
+    void sameDealNumberGivesSameLayout() {
+        SolitaireRules rules = new SolitaireRules.Builder().initialFinishes(1).build();
+        for (long deal = -3; deal < 20; ++deal) {
+            SolitairePosition expected = SolitaireDeal.positionOf(deal, 1);
+            assertEquals(expected, new SolitaireGame(rules, deal).getPosition());
+            assertEquals(expected, SolitaireDeal.positionOf(deal, 1));
+        }
+        assertNotEquals(SolitaireDeal.positionOf(1, 0), SolitaireDeal.positionOf(2, 0));
+    }
+
+    @Test
+    void batchGenerationMatchesSingleDeals() {
+        long first = Long.MAX_VALUE - 4;  // wraps around to negative deal numbers
+        int count = 10;
+        long[] words = new long[count * SolitairePosition.LONGS];
+        SolitaireDeal.generate(first, count, 0, words, 0);
+        for (int k = 0; k < count; ++k) {
+            assertEquals(SolitaireDeal.positionOf(first + k, 0),
+                    new SolitairePosition(words, k * SolitairePosition.LONGS));
+        }
+    }
+
+    /**
+     * The hash and the counts kept up to date by moves and undos equal the ones computed from the whole layout.
+     */
+    @Test
+    void incrementalStateMatchesFullScan() {
+        SolitaireRules rules = new SolitaireRules.Builder().safeAutoPlay(true).build();
+        Random random = new Random(11);
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        for (long deal = 0; deal < 50; ++deal) {
+            SolitaireGame game = new SolitaireGame(rules, deal);
+            assertMatchesFullScan(game, "deal " + deal);
+            for (int step = 0; step < 200; ++step) {
+                int count = game.generateAllMoves(buffer);
+                if (count == 0 || (random.nextInt(4) == 0 && game.hasMoveToUndo())) {
+                    if (!game.hasMoveToUndo()) break;
+                    game.undo();
+                } else {
+                    game.move(game.decodeMove(buffer[random.nextInt(count)]));
+                }
+                assertMatchesFullScan(game, "deal " + deal + ", step " + step);
+            }
+            game.restartGame();
+            assertEquals(SolitaireDeal.positionOf(deal, 0).positionHash(), game.getPositionHash());
+            assertMatchesFullScan(game, "deal " + deal + ", restarted");
+        }
+    }
+
+    private static void assertMatchesFullScan(SolitaireGame game, String message) {
+        assertEquals(game.getPosition().positionHash(), game.getPositionHash(), message);
+
+        int freeSpaces = 0;
+        for (Card card : game.getSpaceArea()) {
+            if (card == null) freeSpaces++;
+        }
+        int emptyColumns = 0;
+        int inversions = 0;
+        for (SolitaireDeck deck : game.getMainArea()) {
+            if (deck.isEmpty()) emptyColumns++;
+            for (int i = 1; i < deck.size(); ++i) {
+                if (deck.get(i - 1).getNum() <= deck.get(i).getNum()) inversions++;
+            }
+        }
+        assertEquals(freeSpaces, game.getFreeSpaceCount(), message);
+        assertEquals(emptyColumns, game.getEmptyColumnCount(), message);
+        assertEquals(inversions, game.getInversionCount(), message);
+        assertEquals(inversions == 0, game.canAutoFinish(), message);
+    }
+}
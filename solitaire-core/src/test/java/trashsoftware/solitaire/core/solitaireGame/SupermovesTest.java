@@ -0,0 +1,90 @@
+package trashsoftware.solitaire.core.solitaireGame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SupermovesTest {
+
+    private static final SolitaireRules RULES = new SolitaireRules.Builder().strict(true).build();
+
+    /**
+     * Every supermove of random games expands to legal single-card moves with the same effect, which merge back
+     * into the supermove.
+     */
+    @Test
+    void decomposeThenMergeGivesSupermove() {
+        Random random = new Random(18);
+        int[] moves = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        int[] atomic = new int[4 * SolitairePosition.CARDS];
+        int[] merged = new int[atomic.length];
+        int checked = 0;
+        for (long deal = 0; deal < 100; ++deal) {
+            SolitaireGame game = new SolitaireGame(RULES, deal);
+            for (int step = 0; step < 100; ++step) {
+                int count = game.generateMoves(moves);
+                if (count == 0) break;
+                for (int i = 0; i < count; ++i) {
+                    int move = moves[i];
+                    if (EncodedMove.type(move) != EncodedMove.MAIN_TO_MAIN || EncodedMove.count(move) == 1) continue;
+                    SolitairePosition before = game.getPosition();
+                    int length = Supermoves.decompose(game, move, atomic);
+                    assertEquals(before, game.getPosition());
+
+                    SolitaireGame expanded = before.toGame(RULES);
+                    for (int j = 0; j < length; ++j) {
+                        assertEquals(1, EncodedMove.count(atomic[j]));
+                        assertTrue(expanded.movableEncoded(atomic[j]), EncodedMove.toString(atomic[j]));
+                        expanded.applyEncoded(atomic[j]);
+                    }
+                    SolitaireGame direct = before.toGame(RULES);
+                    direct.applyEncoded(move);
+                    assertEquals(direct.getPosition(), expanded.getPosition());
+
+                    assertEquals(1, Supermoves.merge(game, atomic, length, merged));
+                    assertEquals(move, merged[0], EncodedMove.toString(merged[0]));
+                    checked++;
+                }
+                game.applyEncoded(moves[random.nextInt(count)]);
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    /**
+     * Merging a whole game played by single-card moves gives fewer legal moves reaching the same layout.
+     */
+    @Test
+    void mergedGameReachesSameLayout() {
+        Random random = new Random(81);
+        int[] moves = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        int[] played = new int[300];
+        int[] merged = new int[played.length];
+        for (long deal = 0; deal < 100; ++deal) {
+            SolitaireGame game = new SolitaireGame(RULES, deal);
+            SolitaireGame start = game.getPosition().toGame(RULES);
+            int length = 0;
+            while (length < played.length) {
+                int count = game.generateMoves(moves);
+                int single = 0;
+                for (int i = 0; i < count; ++i) {
+                    if (EncodedMove.count(moves[i]) == 1) moves[single++] = moves[i];
+                }
+                if (single == 0) break;
+                played[length] = moves[random.nextInt(single)];
+                game.applyEncoded(played[length++]);
+            }
+
+            int mergedLength = Supermoves.merge(start, played, length, merged);
+            assertTrue(mergedLength <= length);
+            for (int i = 0; i < mergedLength; ++i) {
+                assertTrue(start.movableEncoded(merged[i]), "deal " + deal + ", move " + i);
+                start.applyEncoded(merged[i]);
+            }
+            assertEquals(game.getPosition(), start.getPosition(), "deal " + deal);
+        }
+    }
+}
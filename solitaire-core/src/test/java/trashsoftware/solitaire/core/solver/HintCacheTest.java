@@ -0,0 +1,56 @@
+package trashsoftware.solitaire.core.solver;
+
+import org.junit.jupiter.api.Test;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class HintCacheTest {
+
+    private static final SolitaireRules RULES = new SolitaireRules.Builder().build();
+
+    @Test
+    void hintSurvivesUndoAndRestart() {
+        HintCache cache = new HintCache(16);
+        SolitaireGame game = new SolitaireGame(RULES, 17);
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        game.generateMoves(buffer);
+        int hint = buffer[0];
+        cache.put(game, hint);
+
+        game.move(game.decodeMove(hint));
+        assertNotEquals(hint, cache.get(game));
+        game.undo();
+        assertEquals(hint, cache.get(game));
+
+        game.move(game.decodeMove(hint));
+        game.generateMoves(buffer);
+        game.move(game.decodeMove(buffer[0]));
+        game.restartGame();
+        assertEquals(hint, cache.get(game));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void changingAnyRuleClearsCache() {
+        SolitaireRules[] changed = {
+                new SolitaireRules.Builder().safeAutoPlay(true).build(),
+                new SolitaireRules.Builder().strict(false).build(),
+                new SolitaireRules.Builder().initialFinishes(1).build()
+        };
+        for (SolitaireRules rules : changed) {
+            HintCache cache = new HintCache(16);
+            SolitaireGame game = new SolitaireGame(RULES, 17);
+            int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+            game.generateMoves(buffer);
+            cache.put(game, buffer[0]);
+            assertEquals(buffer[0], cache.get(new SolitaireGame(new SolitaireRules.Builder().build(), 17)));
+
+            assertEquals(0, cache.get(new SolitaireGame(rules, 17)));
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.get(game));
+        }
+    }
+}
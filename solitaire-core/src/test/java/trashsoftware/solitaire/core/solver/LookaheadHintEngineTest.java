@@ -0,0 +1,84 @@
+package trashsoftware.solitaire.core.solver;
+
+import org.junit.jupiter.api.Test;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LookaheadHintEngineTest {
+
+    private static final SolitaireRules RULES = new SolitaireRules.Builder().build();
+
+    @Test
+    void hintIsLegalMove() {
+        LookaheadHintEngine engine = new LookaheadHintEngine.Builder().timeBudgetMillis(20).build();
+        int[] buffer = new int[SolitaireGame.MAX_GENERATED_MOVES];
+        for (long deal = 0; deal < 10; ++deal) {
+            SolitaireGame game = new SolitaireGame(RULES, deal);
+            int move = engine.findMove(game.getPosition(), RULES);
+            int count = game.generateMoves(buffer);
+            assertTrue(Arrays.stream(buffer, 0, count).anyMatch(m -> m == move), "deal " + deal);
+        }
+    }
+
+    @Test
+    void answersWithinTimeBudget() {
+        long budget = 20;
+        LookaheadHintEngine engine = new LookaheadHintEngine.Builder()
+                .timeBudgetMillis(budget)
+                .maxDepth(60)
+                .build();
+        for (long deal = 0; deal < 5; ++deal) {
+            SolitaireGame game = new SolitaireGame(RULES, deal);
+            long begin = System.nanoTime();
+            engine.findMove(game.getPosition(), RULES);
+            long millis = (System.nanoTime() - begin) / 1_000_000;
+            assertTrue(millis < budget + 1000, "deal " + deal + " took " + millis + " ms");
+        }
+    }
+
+    /**
+     * A few moves before the end of a solution, following the hints wins the game.
+     */
+    @Test
+    void hintsFinishNearlyWonGame() {
+        assertHintsFinish(RULES, 3);
+    }
+
+    /**
+     * With safe auto play the cards finished by the game take no ply, so a search as deep as the player moves left
+     * still sees the win.
+     */
+    @Test
+    void hintsWithAutoPlayFinishNearlyWonGame() {
+        assertHintsFinish(new SolitaireRules.Builder().safeAutoPlay(true).build(), 3);
+    }
+
+    /**
+     * Plays a solution until {@code movesLeft} player moves are left, then follows the hints of an engine that
+     * looks {@code movesLeft} moves ahead.
+     */
+    private static void assertHintsFinish(SolitaireRules rules, int movesLeft) {
+        SolitaireGame game = new SolitaireGame(rules, 0);
+        int[] solution = new SolitaireSolver.Builder().build().solve(game).getMoves();
+        for (int i = 0; i < solution.length; ) {
+            int before = game.getHistorySize();
+            assertTrue(game.move(game.decodeMove(solution[i])));
+            i += game.getHistorySize() - before;  // the solution lists the auto played moves too
+        }
+        assertTrue(game.wining());
+        for (int i = 0; i < movesLeft; ++i) game.undo();
+
+        LookaheadHintEngine engine = new LookaheadHintEngine.Builder()
+                .timeBudgetMillis(1000)
+                .maxDepth(movesLeft)
+                .build();
+        for (int i = 0; i < movesLeft && !game.wining(); ++i) {
+            assertTrue(game.move(game.decodeMove(engine.findMove(game.getPosition(), rules))));
+        }
+        assertTrue(game.wining());
+    }
+}
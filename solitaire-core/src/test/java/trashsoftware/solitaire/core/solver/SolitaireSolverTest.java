@@ -0,0 +1,52 @@
+package trashsoftware.solitaire.core.solver;
+
+import org.junit.jupiter.api.Test;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireGame;
+import trashsoftware.solitaire.core.solitaireGame.SolitaireRules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolitaireSolverTest {
+
+    private static final long[] DEALS = {0, 1, 2, 3, 4};
+
+    /**
+     * Solutions list the safe auto play moves too, so they are played without auto play.
+     */
+    private static final SolitaireRules REPLAY_RULES = new SolitaireRules.Builder().safeAutoPlay(false).build();
+
+    @Test
+    void solutionsReplayToWonGame() {
+        assertSolutionsReplay(new SolitaireSolver.Builder().safeAutoPlay(true).build());
+    }
+
+    @Test
+    void solutionsWithoutAutoPlayReplayToWonGame() {
+        assertSolutionsReplay(new SolitaireSolver.Builder().safeAutoPlay(false).build());
+    }
+
+    @Test
+    void parallelSolutionsReplayToWonGame() {
+        ParallelSolitaireSolver solver = new ParallelSolitaireSolver.Builder().parallelism(2).build();
+        for (long deal : DEALS) {
+            SolitaireGame game = new SolitaireGame(REPLAY_RULES, deal);
+            assertWins(game, solver.solve(game), deal);
+        }
+    }
+
+    private static void assertSolutionsReplay(SolitaireSolver solver) {
+        for (long deal : DEALS) {
+            SolitaireGame game = new SolitaireGame(REPLAY_RULES, deal);
+            assertWins(game, solver.solve(game), deal);
+        }
+    }
+
+    private static void assertWins(SolitaireGame game, SolitaireSolution solution, long deal) {
+        assertEquals(SolitaireSolution.Verdict.SOLVED, solution.getVerdict(), "deal " + deal);
+        for (int move : solution.getMoves()) {
+            assertTrue(game.move(game.decodeMove(move)), "deal " + deal + ", move " + move);
+        }
+        assertTrue(game.wining(), "deal " + deal);
+    }
+}
@@ -0,0 +1,91 @@
+package trashsoftware.solitaire.core.solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class TranspositionTableTest {
+
+    /**
+     * Keys of one bucket of a 1 MB table, which has 2^14 buckets.
+     */
+    private static long key(int i) {
+        return ((long) i << 20) | 5;
+    }
+
+    private static boolean contains(TranspositionTable table, int i, int generation) {
+        return table.probe(key(i), generation) != TranspositionTable.MISS;
+    }
+
+    private static int countPresent(TranspositionTable table, int from, int to, int generation) {
+        int count = 0;
+        for (int i = from; i <= to; ++i) {
+            if (contains(table, i, generation)) count++;
+        }
+        return count;
+    }
+
+    @Test
+    void storedEntryReadsBack() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        int generation = table.nextGeneration();
+        table.store(key(1), generation, 12, 34);
+        long entry = table.probe(key(1), generation);
+        assertEquals(12, TranspositionTable.depth(entry));
+        assertEquals(34, TranspositionTable.bound(entry));
+
+        table.store(key(1), generation, 7, 8);  // updated in place
+        assertEquals(7, TranspositionTable.depth(table.probe(key(1), generation)));
+        assertEquals(TranspositionTable.MISS, table.probe(key(2), generation));
+        assertEquals(TranspositionTable.MISS, table.probe(key(1), table.nextGeneration()));
+    }
+
+    @Test
+    void depthPreferredKeepsDeeperEntries() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        int generation = table.nextGeneration();
+        for (int i = 1; i <= 4; ++i) table.store(key(i), generation, 10 * i, 0);
+        assertEquals(4, countPresent(table, 1, 4, generation));
+
+        // a shallow entry only takes the place of the newest one
+        table.store(key(5), generation, 5, 0);
+        assertEquals(TranspositionTable.MISS, table.probe(key(1), generation));
+        assertEquals(4, countPresent(table, 2, 5, generation));
+
+        // a deep entry replaces the least deep of the others
+        table.store(key(6), generation, 50, 0);
+        assertEquals(TranspositionTable.MISS, table.probe(key(2), generation));
+        assertEquals(4, countPresent(table, 3, 6, generation));
+    }
+
+    @Test
+    void alwaysReplaceKeepsNewestEntry() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE);
+        int generation = table.nextGeneration();
+        for (int i = 1; i <= 20; ++i) {
+            table.store(key(i), generation, 100 - i, 0);
+            assertNotEquals(TranspositionTable.MISS, table.probe(key(i), generation), "entry " + i);
+            assertEquals(Math.min(i, 4), countPresent(table, 1, i, generation));
+        }
+    }
+
+    @Test
+    void olderGenerationsAreEvictedFirst() {
+        for (TranspositionTable.ReplacementPolicy policy : TranspositionTable.ReplacementPolicy.values()) {
+            TranspositionTable table = new TranspositionTable(1, policy);
+            int old = table.nextGeneration();
+            // depth-preferred entries count 16 moves less deep per generation of age, so 10 is less than 5 now
+            int oldDepth = policy == TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE ? 100 : 10;
+            table.store(key(1), old, oldDepth, 0);
+            table.store(key(2), old, oldDepth, 0);
+
+            int current = table.nextGeneration();
+            assertEquals(0, countPresent(table, 1, 2, current), "older entries are invisible");
+            for (int i = 3; i <= 5; ++i) table.store(key(i), current, 5, 0);
+
+            assertEquals(3, countPresent(table, 3, 5, current), policy.toString());
+            assertEquals(1, countPresent(table, 1, 2, old), policy.toString());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package trashsoftware.solitaire.util;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The recorder is static and reads {@code solitaire.recordFile} once, so every test of this class shares one
+ * records file in a temporary directory and uses its own levels.
+ */
+class SolitaireRecorderTest {
+
+    @TempDir
+    static Path dir;
+
+    @BeforeAll
+    static void useTemporaryFile() {
+        System.setProperty("solitaire.recordFile", dir.resolve("records.json").toString());
+    }
+
+    @Test
+    void recordsReloadAfterCompactions() throws Exception {
+        int level = 7;
+        Random random = new Random(25);
+        List<SolitaireRecord> expected = new ArrayList<>();
+        for (int i = 0; i < SolitaireRecorder.COMPACT_THRESHOLD * 5 / 2; ++i) {
+            SolitaireRecord record = randomRecord(level, random);
+            SolitaireRecorder.put(record);
+            expected.add(record);
+        }
+        SolitaireRecorder.reload();
+
+        assertEquals(keys(expected), keys(SolitaireRecorder.copyRecords().get(level)));
+        assertTrue(Files.exists(dir.resolve("records.json")));
+        assertTrue(countLogs() <= 1, "logs older than the snapshot are deleted");
+    }
+
+    @Test
+    void leftoverOlderLogIsIgnored() throws Exception {
+        Random random = new Random(52);
+        for (int i = 0; i < SolitaireRecorder.COMPACT_THRESHOLD; ++i) {
+            SolitaireRecorder.put(randomRecord(8, random));
+        }
+        SolitaireRecorder.reload();  // the snapshot is now after epoch 0
+
+        Path leftover = SolitaireRecorder.logFile(0);
+        SolitaireRecord stale = randomRecord(9, random);
+        Files.writeString(leftover, "{\"score\":" + stale.score + ",\"seconds\":" + stale.seconds +
+                ",\"steps\":" + stale.steps + ",\"initFinishes\":9,\"date\":\"" +
+                SolitaireRecorder.DATE_FORMAT.format(stale.date) + "\"}" + System.lineSeparator(),
+                StandardCharsets.UTF_8);
+        SolitaireRecorder.reload();
+
+        assertNull(SolitaireRecorder.copyRecords().get(9));
+        assertFalse(Files.exists(leftover));
+    }
+
+    @Test
+    void rankMatchesLinearScan() {
+        int level = 11;
+        Random random = new Random(11);
+        List<SolitaireRecord> done = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            SolitaireRecord record = randomRecord(level, random);
+            SolitaireRankResult rank = SolitaireRecorder.rank(record);
+            if (!done.isEmpty()) {
+                assertEquals(done.stream().filter(r -> r.score >= record.score).count(), rank.scoreRank);
+                assertEquals(done.stream().filter(r -> r.seconds <= record.seconds).count(), rank.timeRank);
+                assertEquals(done.stream().filter(r -> r.steps <= record.steps).count(), rank.stepsRank);
+            }
+            SolitaireRankResult put = SolitaireRecorder.put(record);
+            assertEquals(rank.scoreRank, put.scoreRank);
+            assertEquals(rank.timeRank, put.timeRank);
+            assertEquals(rank.stepsRank, put.stepsRank);
+            done.add(record);
+        }
+    }
+
+    private static SolitaireRecord randomRecord(int level, Random random) {
+        return new SolitaireRecord(level, random.nextInt(600), random.nextInt(5000), 50 + random.nextInt(200),
+                new Date(1_500_000_000_000L + random.nextInt(1_000_000_000) * 1000L));
+    }
+
+    /**
+     * @return the fields of the records as saved, sorted, since the order of equal results is not kept
+     */
+    private static List<String> keys(List<SolitaireRecord> records) {
+        return records.stream()
+                .map(r -> r.initFinish + "," + r.score + "," + r.seconds + "," + r.steps + "," +
+                        SolitaireRecorder.DATE_FORMAT.format(r.date))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static int countLogs() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "records.json.*.log")) {
+            for (Path ignored : stream) count++;
+        }
+        return count;
+    }
+}
@@ -3,6 +3,7 @@ package trashsoftware.solitaire.fxml.controls;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
@@ -23,7 +24,13 @@ import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import trashsoftware.solitaire.Main;
+import trashsoftware.solitaire.core.journal.GameJournal;
+import trashsoftware.solitaire.core.journal.JournalRecording;
 import trashsoftware.solitaire.core.solitaireGame.*;
+import trashsoftware.solitaire.core.solver.HintCache;
+import trashsoftware.solitaire.core.solver.LookaheadHintEngine;
+import trashsoftware.solitaire.core.solver.SolitaireSolution;
+import trashsoftware.solitaire.core.solver.SolitaireSolver;
 import trashsoftware.solitaire.util.Configs;
 import trashsoftware.solitaire.util.SolitaireRankResult;
 import trashsoftware.solitaire.util.SolitaireRecord;
@@ -31,10 +38,14 @@ import trashsoftware.solitaire.util.SolitaireRecorder;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.util.Date;
 import java.util.ResourceBundle;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class GameView implements Initializable {
     private static final Paint RED = Paint.valueOf("red");
@@ -99,6 +110,51 @@ public class GameView implements Initializable {
     private int timerSeconds;
     private SolitaireRankResult rankedScores;
 
+    /**
+     * Runs the solvability check of each new deal, so that the UI thread never waits for the solver.
+     */
+    private final ExecutorService solverExecutor = daemonExecutor("SolvabilityCheck");
+    /**
+     * Runs the hint searches, apart from the solvability check so that a hint never waits for it.
+     */
+    private final ExecutorService hintExecutor = daemonExecutor("HintSearch");
+    private final LookaheadHintEngine hintEngine = new LookaheadHintEngine.Builder()
+            .timeBudgetMillis(50)
+            .build();
+    /**
+     * Hints of positions already searched, kept over undo, restart and new games of the same rules.
+     */
+    private final HintCache hintCache = new HintCache(4096);
+    private final SolitaireSolver solvabilityChecker = new SolitaireSolver.Builder()
+            .nodeLimit(300_000)
+            .timeLimitMillis(10_000)
+            .tableMegabytes(32)
+            .build();
+    private Future<?> solvabilityCheck;
+    private Future<?> hintSearch;
+    /**
+     * Result of the solvability check of the current deal, {@code null} while checking.
+     */
+    private SolitaireSolution.Verdict solvability;
+    /**
+     * Every game played, written when the game is won or left. The file can be changed by the system property
+     * {@code solitaire.journalFile}.
+     */
+    private final GameJournal journal =
+            new GameJournal(Paths.get(System.getProperty("solitaire.journalFile", "games.journal")));
+    /**
+     * Journal of the current game, {@code null} after it is written.
+     */
+    private JournalRecording recording;
+
+    private static ExecutorService daemonExecutor(String threadName) {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     private static String secondsToString(int seconds) {
         int minutes = seconds / 60;
         int sec = seconds % 60;
@@ -118,20 +174,35 @@ public class GameView implements Initializable {
     public void setStage(Stage stage) {
         this.stage = stage;
 
-        stage.setOnCloseRequest(e -> timer.cancel());
+        stage.setOnCloseRequest(e -> {
+            timer.cancel();
+            solverExecutor.shutdownNow();
+            hintExecutor.shutdownNow();
+            finishRecording();
+            journal.close();
+        });
     }
 
     @FXML
     void undoAction() {
         clearHint();
-        if (game.hasMoveToUndo()) {  // double check
+        if (game.hasMoveToUndo()) {
             SolitaireMove move = game.getLastDoneMove();
+            CardLocation realDstLocation = move instanceof SolitaireMove.AutoPlay ? null :
+                    move.getDstLocation().reloadLocation(row -> row + 1);
+            if (realDstLocation == null || realDstLocation.getCard() != move.getSrcLocation().getCard()) {
+                // nothing to animate, or the moved card was finished by safe auto play
+                game.undo();
+                reloadSelection();
+                setButtonsStatus();
+                draw();
+                return;
+            }
 
-            CardLocation dst = move.getDstLocation();
-            CardLocation realDstLocation = dst.reloadLocation(row -> row + 1);
-
+            // cards finished automatically go back with the move, at the end of its animation
             animation(realDstLocation, move.getSrcLocation(), e -> {
                 game.undo();
+                reloadSelection();
                 animatingCards = null;
                 setButtonsStatus();
                 draw();
@@ -139,11 +210,46 @@ public class GameView implements Initializable {
         }
     }
 
+    /**
+     * Shows the cached hint of this layout, or searches one on the hint thread and shows it when it is found,
+     * if the layout is still the same.
+     */
     @FXML
     void hintAction() {
         if (animatingCards != null) return;
         selected = null;
-        hint = game.getHint();
+        hint = null;
+        if (hintSearch != null) hintSearch.cancel(true);
+        int cachedMove = hintCache.get(game);
+        if (cachedMove != 0) {
+            showHint(game.hintOf(cachedMove));
+            return;
+        }
+        SolitaireGame hintedGame = game;
+        long hintedHash = game.getPositionHash();
+        int hintedSteps = game.getStepsCount();
+        SolitairePosition position = game.getPosition();
+        SolitaireRules rules = game.getRules();
+        hintSearch = hintExecutor.submit(() -> {
+            int move = hintEngine.findMove(position, rules);
+            Platform.runLater(() -> {
+                if (game == hintedGame && game.getPositionHash() == hintedHash &&
+                        game.getStepsCount() == hintedSteps && animatingCards == null && !finished) {
+                    if (move == 0) {
+                        showHint(game.getHint());
+                    } else {
+                        hintCache.put(game, move);
+                        showHint(game.hintOf(move));
+                    }
+                }
+            });
+        });
+        draw();
+    }
+
+    private void showHint(SolitaireHint newHint) {
+        selected = null;
+        hint = newHint;
         if (hint != null) {
             if (hint.getSrcLocation() != null) {
                 if (hint.getSrcLocation().getCard() == null) {
@@ -165,6 +271,7 @@ public class GameView implements Initializable {
         SolitaireMove nextMove = game.nextAutoMove();
         animation(nextMove.getSrcLocation(), nextMove.getDstLocation(), e -> {
             game.move(nextMove);
+            reloadSelection();
             animatingCards = null;
             draw();
             if (!game.wining()) {
@@ -252,7 +359,7 @@ public class GameView implements Initializable {
             return;
         }
 
-        double[] cardTopLeft = location.cardLeftXY(this);
+        double[] cardTopLeft = cardLeftXY(location);
         draggedCards = createDraggingCards(
                 location,
                 x - cardTopLeft[0],
@@ -318,6 +425,7 @@ public class GameView implements Initializable {
 
     private boolean directMoveAction(SolitaireMove move) {
         if (game.move(move)) {
+            reloadSelection();
             setButtonsStatus();
             return true;
         }
@@ -335,9 +443,11 @@ public class GameView implements Initializable {
 
             animation(move.getSrcLocation(), realDstLocation, e -> {
                 game.move(move);
+                reloadSelection();
                 animatingCards = null;
                 draw();
                 setButtonsStatus();
+                checkWin();  // safe auto play may finish the game
             });
 
             return true;
@@ -472,6 +582,43 @@ public class GameView implements Initializable {
                         SolitaireRecorder.DECIMAL_FORMAT.format(curScore[1]),
                 width / 2,
                 timerY + fontSize * 3.5);  // score
+        graphicsContext.fillText(solvabilityText(), width / 2, timerY + fontSize * 5.0);
+    }
+
+    private String solvabilityText() {
+        if (solvability == null) return bundle.getString("solvabilityChecking");
+        switch (solvability) {
+            case SOLVED:
+                return bundle.getString("solvable");
+            case UNSOLVABLE:
+                return bundle.getString("unsolvable");
+            default:
+                return bundle.getString("solvabilityUnknown");
+        }
+    }
+
+    /**
+     * Starts checking whether the current deal can be won, cancelling the check of the previous deal.
+     * <p>
+     * The solver works on a snapshot of the initial layout, and the result is only posted back to the UI
+     * thread if the game has not been replaced meanwhile.
+     */
+    private void startSolvabilityCheck() {
+        if (solvabilityCheck != null) solvabilityCheck.cancel(true);
+        solvability = null;
+        SolitaireGame checkedGame = game;
+        SolitairePosition position = game.getPosition();
+        SolitaireRules rules = game.getRules();
+        solvabilityCheck = solverExecutor.submit(() -> {
+            SolitaireSolution solution = solvabilityChecker.solve(position, rules);
+            if (Thread.currentThread().isInterrupted()) return;
+            Platform.runLater(() -> {
+                if (game == checkedGame) {
+                    solvability = solution.getVerdict();
+                    if (!finished) draw();
+                }
+            });
+        });
     }
 
     private void checkWin() {
@@ -485,6 +632,7 @@ public class GameView implements Initializable {
         finished = true;
         timer.cancel();
         recordResult();
+        finishRecording();
         setButtonsStatus();
     }
 
@@ -543,6 +691,23 @@ public class GameView implements Initializable {
         return xyOfMain(0, rowCount - 1)[1] + cardFullHeight + cardGapHeight;
     }
 
+    /**
+     * @param location a card location
+     * @return the x and y of the top left corner of the card at {@code location}
+     */
+    private double[] cardLeftXY(CardLocation location) {
+        if (location instanceof CardLocation.MainLocation) {
+            CardLocation.MainLocation mainLocation = (CardLocation.MainLocation) location;
+            return xyOfMain(mainLocation.getCol(), mainLocation.getRow());
+        } else if (location instanceof CardLocation.SpaceLocation) {
+            return xyOfSpace(((CardLocation.SpaceLocation) location).getPos());
+        } else if (location instanceof CardLocation.FinishedLocation) {
+            return xyOfFinished(((CardLocation.FinishedLocation) location).getPos());
+        } else {
+            throw new SolitaireException("Unexpected location.");
+        }
+    }
+
     public double[] xyOfMain(int col, int row) {
         return new double[]{
                 mainSpacing + mainCardOccupyWidth() * col,
@@ -720,11 +885,22 @@ public class GameView implements Initializable {
 
     private void drawHints() {
         if (hint != null) {
-            double[] xy = hint.getDstLocation().reloadLocation(row -> row == -1 ? 0 : row).cardLeftXY(this);
+            double[] xy = cardLeftXY(hint.getDstLocation().reloadLocation(row -> row == -1 ? 0 : row));
             drawHighlight(xy[0], xy[1], HINT);
         }
     }
 
+    /**
+     * Replaces the selection kept across a move or an undo by the location at the same place in the new layout,
+     * since a main location highlights the cards found there when it is first drawn.
+     */
+    private void reloadSelection() {
+        if (selected != null) {
+            selected = selected.reloadLocation();
+            if (selected.getCard() == null) selected = null;
+        }
+    }
+
     private void clearHint() {
         if (hint != null) {
             hint = null;
@@ -830,19 +1006,39 @@ public class GameView implements Initializable {
     }
 
     private void startNewGame() {
+        finishRecording();
         game = new SolitaireGame(
                 new SolitaireRules.Builder()
                         .initialFinishes(SolitaireRules.loadInitialFinishes())
                         .strict(!Configs.getBoolean("casual"))
+                        .safeAutoPlay(Configs.getBoolean("safeAutoPlay"))
                         .build());
+        startRecording();
+        startSolvabilityCheck();
         setStartGameUi();
     }
 
     private void restartGame() {
         game.restartGame();
+        if (recording == null) startRecording();  // the game was won and written
         setStartGameUi();
     }
 
+    private void startRecording() {
+        recording = new JournalRecording(game);
+        game.setHistoryListener(recording);
+    }
+
+    /**
+     * Appends the current game to the journal, unless nothing was done in it.
+     */
+    private void finishRecording() {
+        if (recording == null) return;
+        game.setHistoryListener(null);
+        if (recording.getEventCount() > 0) journal.append(recording);
+        recording = null;
+    }
+
     private void setStartGameUi() {
         if (timer != null) {
             timer.cancel();
@@ -912,7 +1108,7 @@ public class GameView implements Initializable {
 
         @Override
         boolean cardIsDragging(Card card) {
-            return card.equals(srcLocation.getCard());
+            return card == srcLocation.getCard();
         }
     }
 
@@ -1038,8 +1234,8 @@ public class GameView implements Initializable {
         private final double ySpeed;
 
         MoveAnimation(CardLocation srcLocation, CardLocation dstLocation) {
-            double[] srcXY = getXY(srcLocation);
-            double[] dstXY = getXY(dstLocation);
+            double[] srcXY = cardLeftXY(srcLocation);
+            double[] dstXY = cardLeftXY(dstLocation);
 
             double srcX = srcXY[0];
             double srcY = srcXY[1];
@@ -1058,19 +1254,6 @@ public class GameView implements Initializable {
             setButtonsStatus();
         }
 
-        private double[] getXY(CardLocation location) {
-            if (location instanceof CardLocation.MainLocation) {
-                CardLocation.MainLocation mainLocation = (CardLocation.MainLocation) location;
-                return xyOfMain(mainLocation.getCol(), mainLocation.getRow());
-            } else if (location instanceof CardLocation.SpaceLocation) {
-                return xyOfSpace(((CardLocation.SpaceLocation) location).getPos());
-            } else if (location instanceof CardLocation.FinishedLocation) {
-                return xyOfFinished(((CardLocation.FinishedLocation) location).getPos());
-            } else {
-                throw new SolitaireException("Unexpected location.");
-            }
-        }
-
         @Override
         public void handle(ActionEvent event) {
             animatingCards.x += xSpeed;
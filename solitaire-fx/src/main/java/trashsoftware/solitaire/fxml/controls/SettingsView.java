@@ -15,6 +15,8 @@ public class SettingsView implements Initializable {
     ComboBox<Integer> initFinishesBox;
     @FXML
     CheckBox casualModeBox;
+    @FXML
+    CheckBox safeAutoPlayBox;
 
     private Stage stage;
     private GameView parent;
@@ -34,6 +36,8 @@ public class SettingsView implements Initializable {
         Configs.writeConfig("initFinishes", initFinishesBox.getSelectionModel().getSelectedItem());
         Configs.writeConfig("casual",
                 String.valueOf(casualModeBox.isSelected()));
+        Configs.writeConfig("safeAutoPlay",
+                String.valueOf(safeAutoPlayBox.isSelected()));
         parent.newGameAction();
 
         stage.close();
@@ -55,5 +59,6 @@ public class SettingsView implements Initializable {
         }
         boolean isCasual = Configs.getBoolean("casual");
         casualModeBox.setSelected(isCasual);
+        safeAutoPlayBox.setSelected(Configs.getBoolean("safeAutoPlay"));
     }
 }